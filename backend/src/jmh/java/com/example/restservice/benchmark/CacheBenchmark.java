@@ -0,0 +1,85 @@
+package com.example.restservice.benchmark;
+
+import com.example.restservice.model.SongSummary;
+import com.example.restservice.service.CacheConfig;
+import com.example.restservice.service.CacheStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The artist cache as {@link CacheConfig} builds it, hit from several threads.
+ * {@code keys} above the 500-entry bound keeps evictions in the mix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+    @Param({"400", "2000"})
+    private int keys;
+
+    private CacheStore<String, List<SongSummary>> cache;
+    private String[] artists;
+    private List<SongSummary> songs;
+
+    @Setup
+    public void setUp() {
+        cache = new CacheConfig().songsCache(500, 20_000,
+                Duration.ofMinutes(10), Duration.ofMinutes(5));
+        songs = List.of(new SongSummary(1L, "Hello", "Adele"),
+                new SongSummary(2L, "Skyfall", "Adele"));
+        artists = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            artists[i] = "Artist " + i;
+            cache.put(artists[i], songs);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<SongSummary> get() {
+        return cache.get(randomArtist());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<SongSummary> getOrLoad() {
+        return cache.get(randomArtist(), artist -> songs);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public List<SongSummary> mixedRead() {
+        return cache.get(randomArtist());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedWrite() {
+        cache.put(randomArtist(), songs);
+    }
+
+    private String randomArtist() {
+        return artists[ThreadLocalRandom.current().nextInt(artists.length)];
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.restservice.benchmark;
+
+import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistDto;
+import com.example.restservice.model.Song;
+import com.example.restservice.model.SongDto;
+import com.example.restservice.model.User;
+import com.example.restservice.model.UserDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code fromEntity} mappers over a fully initialized entity graph of
+ * {@code users} users with 10 playlists of 50 songs each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+    private static final int PLAYLISTS_PER_USER = 10;
+    private static final int SONGS_PER_PLAYLIST = 50;
+    private static final int SONGS = 5_000;
+
+    @Param({"10", "1000"})
+    private int users;
+
+    private List<User> userGraph;
+    private List<Playlist> playlists;
+    private List<Song> songs;
+
+    @Setup
+    public void setUp() {
+        songs = new ArrayList<>();
+        for (long i = 0; i < SONGS; i++) {
+            songs.add(new Song(i, "Song " + i, "Artist " + i % 100, new ArrayList<>()));
+        }
+        userGraph = new ArrayList<>();
+        playlists = new ArrayList<>();
+        long playlistId = 0;
+        for (long u = 0; u < users; u++) {
+            User user = new User(u, "user" + u, new ArrayList<>());
+            for (int p = 0; p < PLAYLISTS_PER_USER; p++) {
+                Playlist playlist = new Playlist(playlistId, "Playlist " + playlistId, user,
+                        new ArrayList<>());
+                for (int s = 0; s < SONGS_PER_PLAYLIST; s++) {
+                    Song song = songs.get((int) ((playlistId * 7 + s * 13) % SONGS));
+                    playlist.getSongs().add(song);
+                    song.getPlaylists().add(playlist);
+                }
+                user.getPlaylists().add(playlist);
+                playlists.add(playlist);
+                playlistId++;
+            }
+            userGraph.add(user);
+        }
+    }
+
+    @Benchmark
+    public List<UserDto> users() {
+        return userGraph.stream().map(UserDto::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<PlaylistDto> playlists() {
+        return playlists.stream().map(PlaylistDto::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<SongDto> songs() {
+        return songs.stream().map(SongDto::fromEntity).toList();
+    }
+}
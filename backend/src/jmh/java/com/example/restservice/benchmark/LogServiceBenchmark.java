@@ -0,0 +1,123 @@
+package com.example.restservice.benchmark;
+
+import com.example.restservice.service.LogService;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LogService#createFilteredLogFile} for a day and for one hour of a
+ * generated log spread over 30 days. The warm-up iteration builds the offset
+ * index, so the measured hour query shows the seek, not the first full scan.
+ * Each result is deleted so that both measure filtering; {@code cachedDay}
+ * measures a repeated query answered from the export cache. A parallelism of
+ * 0 scans with one thread per processor, 1 scans sequentially.
+ * The default size keeps a run short; for multi-GB files pass e.g.
+ * {@code -Djmh.args="LogService -p sizeMb=4096"}. The small heap is deliberate:
+ * filtering streams, so it must not need more memory for a bigger log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx128m")
+public class LogServiceBenchmark {
+    private static final int DAYS = 30;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 1);
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"256"})
+    private int sizeMb;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private Path logFile;
+    private Path exportDir;
+    private LogService logService;
+    private String date;
+    private LocalDateTime hourStart;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("bench-app-", ".log");
+        long targetBytes = (long) sizeMb * 1024 * 1024;
+        long written = 0;
+        long line = 0;
+        long span = DAYS * 86_400L;
+        try (BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+            while (written < targetBytes) {
+                // Lines are time-ordered like the real appender writes them
+                LocalDateTime time = FIRST_DAY.atStartOfDay()
+                        .plusSeconds(written * span / targetBytes);
+                String entry = time.format(TIMESTAMP) + " - Executing: SongService"
+                        + ".getSongsByArtist(..) with args: [Artist " + line % 1000 + "]";
+                writer.write(entry);
+                writer.newLine();
+                written += entry.length() + 1;
+                line++;
+            }
+        }
+        exportDir = Files.createTempDirectory("bench-exports-");
+        logService = new LogService(logFile.toString(), exportDir.toString(), Long.MAX_VALUE,
+                Duration.ZERO, parallelism, exportDir.resolve("index").toString(), 64L << 20);
+        date = FIRST_DAY.plusDays(DAYS / 2).toString();
+        hourStart = FIRST_DAY.plusDays(DAYS / 2).atTime(13, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        logService.shutdown();
+        Files.deleteIfExists(logFile);
+        try (Stream<Path> exports = Files.list(exportDir)) {
+            for (Path export : exports.toList()) {
+                Files.delete(export);
+            }
+        }
+        Files.delete(exportDir);
+    }
+
+    @Benchmark
+    public long day() throws IOException {
+        return consume(logService.createFilteredLogFile(date));
+    }
+
+    @Benchmark
+    public long cachedDay() throws IOException {
+        return logService.createFilteredLogFile(date).length();
+    }
+
+    @Benchmark
+    public long hour() throws IOException {
+        return consume(logService.createFilteredLogFile(hourStart, hourStart.plusHours(1)));
+    }
+
+    private static long consume(File filtered) throws IOException {
+        long length = filtered.length();
+        Files.delete(filtered.toPath());
+        return length;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.restservice.benchmark;
+
+import com.example.restservice.model.SongSummary;
+import com.example.restservice.repository.SongRepository;
+import com.example.restservice.service.CacheConfig;
+import com.example.restservice.service.SongService;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SongService#getSongsByArtist} over an in-memory repository, so the
+ * numbers cover validation, the cache and the defensive copy but not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SongServiceBenchmark {
+    @Param({"10", "1000"})
+    private int songsPerArtist;
+
+    private SongService songService;
+    private long missCounter;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger(SongService.class.getName()).setLevel(Level.OFF);
+        List<SongSummary> songs = new ArrayList<>();
+        for (long i = 0; i < songsPerArtist; i++) {
+            songs.add(new SongSummary(i, "Song " + i, "Adele"));
+        }
+        SongRepository songRepository = stub(SongRepository.class, "findSummariesByArtist", songs);
+        songService = new SongService(songRepository,
+                new CacheConfig().songsCache(500, 1_000_000,
+                        Duration.ofMinutes(10), Duration.ofMinutes(5)),
+                null);
+        songService.getSongsByArtist("Adele");
+    }
+
+    @Benchmark
+    public List<SongSummary> hit() {
+        return songService.getSongsByArtist("Adele");
+    }
+
+    @Benchmark
+    public List<SongSummary> miss() {
+        // A fresh key every call; the bounded cache evicts to make room for it
+        return songService.getSongsByArtist("Artist " + missCounter++);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String method, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, invoked, args) -> {
+                    if (invoked.getName().equals(method)) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(invoked.getName());
+                });
+    }
+}
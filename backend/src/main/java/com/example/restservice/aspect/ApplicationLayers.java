@@ -0,0 +1,27 @@
+package com.example.restservice.aspect;
+
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Pointcuts for the layers of the application shared by the aspects. The
+ * aspects themselves are left out so they never advise each other.
+ */
+public class ApplicationLayers {
+
+    @Pointcut("execution(* com.example.restservice..*(..)) "
+            + "&& !within(com.example.restservice.aspect..*)")
+    public void applicationMethod() {
+    }
+
+    @Pointcut("applicationMethod() && within(com.example.restservice.controller..*)")
+    public void controller() {
+    }
+
+    @Pointcut("applicationMethod() && execution(* com.example.restservice.repository..*(..))")
+    public void repository() {
+    }
+
+    @Pointcut("applicationMethod() && !controller() && !repository()")
+    public void service() {
+    }
+}
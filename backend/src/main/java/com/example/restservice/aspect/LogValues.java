@@ -0,0 +1,84 @@
+package com.example.restservice.aspect;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import org.hibernate.Hibernate;
+
+/**
+ * Renders method arguments and results for the call log within a length
+ * budget. Collections, maps and arrays are walked only as far as the budget
+ * reaches and report their size instead of rendering every element, and
+ * uninitialised Hibernate proxies are never loaded just to be logged.
+ */
+final class LogValues {
+    private static final String ELLIPSIS = "…";
+
+    private LogValues() {
+    }
+
+    /**
+     * Renders {@code value} in about {@code maxLength} chars: text is cut at
+     * the budget, and a collection cut short still reports its size.
+     */
+    static String render(Object value, int maxLength) {
+        StringBuilder out = new StringBuilder(Math.min(maxLength, 64));
+        append(out, value, maxLength);
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, Object value, int limit) {
+        if (value == null) {
+            out.append("null");
+        } else if (!Hibernate.isInitialized(value)) {
+            out.append('<').append(Hibernate.getClassLazy(value).getSimpleName())
+                    .append(" not loaded>");
+        } else if (value instanceof CharSequence text) {
+            appendText(out, text, limit);
+        } else if (value instanceof Collection<?> collection) {
+            appendElements(out, collection.iterator(), collection.size(), '[', ']', limit);
+        } else if (value instanceof Map<?, ?> map) {
+            appendElements(out, map.entrySet().iterator(), map.size(), '{', '}', limit);
+        } else if (value instanceof Map.Entry<?, ?> entry) {
+            append(out, entry.getKey(), limit);
+            out.append('=');
+            append(out, entry.getValue(), limit);
+        } else if (value instanceof Object[] array) {
+            appendElements(out, Arrays.asList(array).iterator(), array.length,
+                    '[', ']', limit);
+        } else if (value.getClass().isArray()) {
+            out.append(value.getClass().getComponentType().getSimpleName())
+                    .append('[').append(Array.getLength(value)).append(']');
+        } else {
+            appendText(out, String.valueOf(value), limit);
+        }
+    }
+
+    private static void appendText(StringBuilder out, CharSequence text, int limit) {
+        int room = limit - out.length();
+        if (text.length() <= room) {
+            out.append(text);
+        } else {
+            out.append(text, 0, Math.max(0, room)).append(ELLIPSIS);
+        }
+    }
+
+    private static void appendElements(StringBuilder out, Iterator<?> elements, int size,
+                                       char open, char close, int limit) {
+        out.append(open);
+        int rendered = 0;
+        while (elements.hasNext() && out.length() < limit) {
+            if (rendered > 0) {
+                out.append(", ");
+            }
+            append(out, elements.next(), limit);
+            rendered++;
+        }
+        if (rendered < size) {
+            out.append(", ").append(ELLIPSIS).append(' ').append(size).append(" total");
+        }
+        out.append(close);
+    }
+}
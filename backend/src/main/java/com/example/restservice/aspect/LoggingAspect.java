@@ -1,60 +1,87 @@
 package com.example.restservice.aspect;
 
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import java.util.concurrent.ThreadLocalRandom;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-
+/**
+ * Logs a sample of the application's method calls with their duration and,
+ * in {@link Mode#FULL}, their arguments and result rendered within a length
+ * budget. Controllers, repositories and everything else are sampled at
+ * their own rate; failed calls are always logged. Records are handed to
+ * {@link MethodLogQueue}, so the calling thread never writes to the log.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
 
-    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
-
-    @SuppressWarnings("checkstyle:OperatorWrap")
-    @Before("execution(* com.example.restservice..*(..)) && " +
-            "!within(com.example.restservice.aspect.LoggingAspect) && " +
-            "!within(com.example.restservice.aspect.RequestCountingAspect)")
-    public void logBefore(JoinPoint joinPoint) {
-        if (logger.isInfoEnabled()) {
-            logger.atInfo()
-                    .setMessage("Вызов метода: {} с аргументами: {}")
-                    .addArgument(joinPoint.getSignature().toShortString())
-                    .addArgument(joinPoint::getArgs)
-                    .log();
-        }
+    public enum Mode { FULL, TIMING }
+
+    private final MethodLogQueue queue;
+    private final Mode mode;
+    private final double controllerRate;
+    private final double serviceRate;
+    private final double repositoryRate;
+    private final int maxValueLength;
+
+    public LoggingAspect(MethodLogQueue queue,
+                         @Value("${logs.aspect.mode:FULL}") Mode mode,
+                         @Value("${logs.aspect.sample-rate.controller:1.0}") double controllerRate,
+                         @Value("${logs.aspect.sample-rate.service:1.0}") double serviceRate,
+                         @Value("${logs.aspect.sample-rate.repository:1.0}") double repositoryRate,
+                         @Value("${logs.aspect.max-value-length:256}") int maxValueLength) {
+        this.queue = queue;
+        this.mode = mode;
+        this.controllerRate = controllerRate;
+        this.serviceRate = serviceRate;
+        this.repositoryRate = repositoryRate;
+        this.maxValueLength = maxValueLength;
     }
 
-    @AfterReturning(pointcut = "execution(* com.example.restservice..*(..)) && "
-            + "!within(com.example.restservice.aspect.LoggingAspect) && "
-            + "!within(com.example.restservice.aspect.RequestCountingAspect)",
-            returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        if (logger.isInfoEnabled()) {
-            logger.atInfo()
-                    .setMessage("Метод {} успешно выполнен. Результат: {}")
-                    .addArgument(joinPoint.getSignature().toShortString())
-                    .addArgument(() -> result != null ? result.toString() : "null")
-                    .log();
-        }
+    @Around("com.example.restservice.aspect.ApplicationLayers.controller()")
+    public Object logController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return log(joinPoint, controllerRate);
+    }
+
+    @Around("com.example.restservice.aspect.ApplicationLayers.repository()")
+    public Object logRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return log(joinPoint, repositoryRate);
+    }
+
+    @Around("com.example.restservice.aspect.ApplicationLayers.service()")
+    public Object logService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return log(joinPoint, serviceRate);
     }
 
-    @AfterThrowing(pointcut = "execution(* com.example.restservice..*(..)) && "
-            + "!within(com.example.restservice.aspect.LoggingAspect) && "
-            + "!within(com.example.restservice.aspect.RequestCountingAspect)",
-            throwing = "error")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
-        if (logger.isErrorEnabled()) {
-            logger.atError()
-                    .setMessage("Ошибка в методе: {}, ошбика {}")
-                    .addArgument(joinPoint.getSignature().toShortString())
-                    .addArgument(error.getMessage())
-                    .log();
+    private Object log(ProceedingJoinPoint joinPoint, double rate) throws Throwable {
+        boolean sampled = rate >= 1.0
+                || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable error) {
+            queue.offer(joinPoint.getSignature().toShortString(), micros(start), null, null,
+                    String.valueOf(error.getMessage()));
+            throw error;
         }
+        if (sampled) {
+            long micros = micros(start);
+            if (mode == Mode.FULL) {
+                queue.offer(joinPoint.getSignature().toShortString(), micros,
+                        LogValues.render(joinPoint.getArgs(), maxValueLength),
+                        LogValues.render(result, maxValueLength), null);
+            } else {
+                queue.offer(joinPoint.getSignature().toShortString(), micros, null, null, null);
+            }
+        }
+        return result;
+    }
+
+    private static long micros(long start) {
+        return (System.nanoTime() - start) / 1000;
     }
-}
\ No newline at end of file
+}
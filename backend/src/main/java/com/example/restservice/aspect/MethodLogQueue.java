@@ -0,0 +1,175 @@
+package com.example.restservice.aspect;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands method call records from request threads to one writer thread
+ * through a fixed ring of preallocated slots, so logging a call costs a
+ * slot claim instead of a write to the log file. Callers never wait: when
+ * the writer falls behind and the ring is full, records are dropped and
+ * counted.
+ */
+@Component
+public class MethodLogQueue {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private long head; // writer thread only
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    public MethodLogQueue(@Value("${logs.aspect.buffer-size:8192}") int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.writer = new Thread(this::drain, "method-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a call record; {@code arguments} and {@code result} are null
+     * when only timings are kept, {@code error} is null for calls that
+     * returned. Returns false if the record was dropped.
+     */
+    public boolean offer(String method, long micros, String arguments, String result,
+                         String error) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        Slot slot = slots[index];
+        slot.method = method;
+        slot.micros = micros;
+        slot.arguments = arguments;
+        slot.result = result;
+        slot.error = error;
+        sequences.set(index, position + 1);
+        accepted.increment();
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    public MethodLogStats stats() {
+        return new MethodLogStats(slots.length, accepted.sum(), dropped.sum(), written.get());
+    }
+
+    /**
+     * Stops the writer once everything queued so far has been written.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drain() {
+        while (true) {
+            if (writeNext()) {
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            idle = true;
+            // Re-checked after raising the flag, so a record offered meanwhile is not missed
+            if (!hasNext()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private boolean hasNext() {
+        return sequences.get((int) head & mask) == head + 1;
+    }
+
+    private boolean writeNext() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return false;
+        }
+        Slot slot = slots[index];
+        String method = slot.method;
+        long micros = slot.micros;
+        String arguments = slot.arguments;
+        String result = slot.result;
+        String error = slot.error;
+        slot.clear();
+        sequences.set(index, head + slots.length);
+        head++;
+        write(method, micros, arguments, result, error);
+        written.incrementAndGet();
+        return true;
+    }
+
+    private static void write(String method, long micros, String arguments, String result,
+                              String error) {
+        try {
+            if (error != null) {
+                logger.error("Ошибка в методе: {} через {} мкс, ошибка: {}",
+                        method, micros, error);
+            } else if (arguments == null) {
+                logger.info("Метод {} выполнен за {} мкс", method, micros);
+            } else {
+                logger.info("Метод {} выполнен за {} мкс. Аргументы: {}. Результат: {}",
+                        method, micros, arguments, result);
+            }
+        } catch (RuntimeException e) {
+            // A failing appender must not stop the writer
+        }
+    }
+
+    private static final class Slot {
+        private String method;
+        private long micros;
+        private String arguments;
+        private String result;
+        private String error;
+
+        private void clear() {
+            method = null;
+            arguments = null;
+            result = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.restservice.aspect;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MethodLogStats {
+    private final int capacity;
+    private final long accepted;
+    private final long dropped;
+    private final long written;
+
+    public long getQueued() {
+        return accepted - written;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.restservice.aspect;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency histograms per advised method, plus one per controller method
+ * for the time its requests spent in repositories. Exposed as percentiles
+ * and in the Prometheus text format. A method is named after the type it was
+ * invoked on, so CRUD methods that the repositories inherit from Spring Data
+ * get one series per repository.
+ */
+@Component
+public class MethodTimings {
+    public enum Layer { CONTROLLER, SERVICE, REPOSITORY, DATABASE }
+
+    private static final String[] BUCKET_BOUNDS = {"0.0001", "0.00025", "0.0005", "0.001",
+        "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final long[] BUCKET_BOUND_NANOS = Arrays.stream(BUCKET_BOUNDS)
+            .mapToLong(bound -> Math.round(Double.parseDouble(bound) * NANOS_PER_SECOND))
+            .toArray();
+
+    private final Map<TimerKey, Timer> methodTimers = new ConcurrentHashMap<>();
+    private final Map<TimerKey, Timer> databaseTimers = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(Layer layer, Method method) {
+        return histogram(layer, method.getDeclaringClass(), method);
+    }
+
+    /**
+     * Returns the histogram of {@code method} invoked on {@code type}, which
+     * declares or inherits it.
+     */
+    public LatencyHistogram histogram(Layer layer, Class<?> type, Method method) {
+        Map<TimerKey, Timer> timers = layer == Layer.DATABASE ? databaseTimers : methodTimers;
+        TimerKey key = new TimerKey(type, method);
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> new Timer(layer, name(k.type, k.method)));
+        }
+        return timer.histogram;
+    }
+
+    public List<MethodTiming> timings() {
+        List<MethodTiming> result = new ArrayList<>();
+        for (Timer timer : sortedTimers()) {
+            LatencyHistogram.Snapshot snapshot = timer.histogram.snapshot();
+            result.add(new MethodTiming(timer.label(), timer.name, snapshot.getCount(),
+                    micros(snapshot.getMeanNanos()), micros(snapshot.valueAt(50)),
+                    micros(snapshot.valueAt(90)), micros(snapshot.valueAt(99)),
+                    micros(snapshot.valueAt(99.9)), micros(snapshot.getMaxNanos())));
+        }
+        return result;
+    }
+
+    /**
+     * Renders the histograms in the Prometheus text exposition format. The
+     * fine buckets are folded into a fixed set of {@code le} bounds, so a
+     * bound can be off by the width of one fine bucket, about 3%.
+     */
+    public String prometheus() {
+        StringBuilder out = new StringBuilder();
+        List<Timer> timers = sortedTimers();
+        writeFamily(out, "app_method_duration_seconds",
+                "Duration of controller, service and repository method calls", timers.stream()
+                        .filter(timer -> timer.layer != Layer.DATABASE).toList());
+        writeFamily(out, "app_request_database_seconds",
+                "Time each controller call spent in repository calls", timers.stream()
+                        .filter(timer -> timer.layer == Layer.DATABASE).toList());
+        return out.toString();
+    }
+
+    private static void writeFamily(StringBuilder out, String family, String help,
+                                    List<Timer> timers) {
+        out.append("# HELP ").append(family).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(family).append(" histogram\n");
+        for (Timer timer : timers) {
+            LatencyHistogram.Snapshot snapshot = timer.histogram.snapshot();
+            String labels = "layer=\"" + timer.label() + "\",method=\"" + escape(timer.name) + "\"";
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                out.append(family).append("_bucket{").append(labels).append(",le=\"")
+                        .append(BUCKET_BOUNDS[i]).append("\"} ")
+                        .append(snapshot.countAtOrBelow(BUCKET_BOUND_NANOS[i])).append('\n');
+            }
+            out.append(family).append("_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(snapshot.getCount()).append('\n');
+            out.append(family).append("_sum{").append(labels).append("} ")
+                    .append(snapshot.getSumNanos() / NANOS_PER_SECOND).append('\n');
+            out.append(family).append("_count{").append(labels).append("} ")
+                    .append(snapshot.getCount()).append('\n');
+        }
+    }
+
+    private List<Timer> sortedTimers() {
+        List<Timer> timers = new ArrayList<>(methodTimers.values());
+        timers.addAll(databaseTimers.values());
+        timers.sort(Comparator.comparing((Timer timer) -> timer.layer)
+                .thenComparing(timer -> timer.name));
+        return timers;
+    }
+
+    private static String name(Class<?> type, Method method) {
+        return type.getSimpleName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+                        .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private record TimerKey(Class<?> type, Method method) {
+    }
+
+    private static final class Timer {
+        private final Layer layer;
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(Layer layer, String name) {
+            this.layer = layer;
+            this.name = name;
+        }
+
+        private String label() {
+            return layer.name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
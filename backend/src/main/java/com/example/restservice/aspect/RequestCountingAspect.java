@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
 
 
 @Aspect
@@ -27,12 +28,13 @@ public class RequestCountingAspect {
     public void countRequest() {
         RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
         if (attributes != null) {
-            String url = (String) attributes.getAttribute(
-                    "org.springframework.web.servlet.HandlerMapping.pathWithinHandlerMapping",
+            // The route template, e.g. /api/songs/{id}, rather than the path of each song
+            String route = (String) attributes.getAttribute(
+                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
                     RequestAttributes.SCOPE_REQUEST);
 
-            if (url != null) {
-                visitCounterService.incrementCounter(url);
+            if (route != null) {
+                visitCounterService.incrementCounter(route);
             }
         }
     }
@@ -0,0 +1,97 @@
+package com.example.restservice.aspect;
+
+import java.lang.reflect.Method;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records the duration of every controller, service and repository call in
+ * {@link MethodTimings}. Repository time is also added up per controller
+ * call on the calling thread, which gives the database time of a request;
+ * work a request hands to other threads is not included.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TimingAspect {
+    private static final ThreadLocal<long[]> DATABASE_NANOS = new ThreadLocal<>();
+
+    private final MethodTimings timings;
+
+    @Around("com.example.restservice.aspect.ApplicationLayers.controller()")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (DATABASE_NANOS.get() != null) {
+            return time(joinPoint, MethodTimings.Layer.CONTROLLER);
+        }
+        long[] databaseNanos = new long[1];
+        DATABASE_NANOS.set(databaseNanos);
+        try {
+            return time(joinPoint, MethodTimings.Layer.CONTROLLER);
+        } finally {
+            DATABASE_NANOS.remove();
+            timings.histogram(MethodTimings.Layer.DATABASE, type(joinPoint), method(joinPoint))
+                    .record(databaseNanos[0]);
+        }
+    }
+
+    @Around("com.example.restservice.aspect.ApplicationLayers.service()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MethodTimings.Layer.SERVICE);
+    }
+
+    @Around("com.example.restservice.aspect.ApplicationLayers.repository()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timings.histogram(MethodTimings.Layer.REPOSITORY, type(joinPoint), method(joinPoint))
+                    .record(elapsed);
+            long[] databaseNanos = DATABASE_NANOS.get();
+            if (databaseNanos != null) {
+                databaseNanos[0] += elapsed;
+            }
+        }
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, MethodTimings.Layer layer)
+            throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.histogram(layer, type(joinPoint), method(joinPoint))
+                    .record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The type a call was made on. Repositories are interface proxies whose
+     * inherited CRUD methods are declared by Spring Data, so for those the
+     * proxied repository interface stands in for the declaring one.
+     */
+    private static Class<?> type(ProceedingJoinPoint joinPoint) {
+        Class<?> declaring = method(joinPoint).getDeclaringClass();
+        Object proxy = joinPoint.getThis();
+        if (proxy != null && declaring.isInterface()) {
+            for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                if (declaring.isAssignableFrom(type)) {
+                    return type;
+                }
+            }
+        }
+        Object target = joinPoint.getTarget();
+        return target == null ? declaring : ClassUtils.getUserClass(target);
+    }
+
+    private static Method method(ProceedingJoinPoint joinPoint) {
+        return ((MethodSignature) joinPoint.getSignature()).getMethod();
+    }
+}
@@ -1,18 +1,21 @@
 package com.example.restservice.controller;
 
+import com.example.restservice.exception.CustomExceptionHandler;
+import com.example.restservice.model.LogSearchQuery;
+import com.example.restservice.model.LogSearchResult;
+import com.example.restservice.service.LogExportJobs;
+import com.example.restservice.service.LogFileSender;
 import com.example.restservice.service.LogService;
+import com.example.restservice.service.LogTail;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.CacheControl;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,63 +23,93 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/logs")
 @Tag(name = "Log Controller", description = "Provides async log file operations")
+@CustomExceptionHandler
 public class LogController {
     private final LogService logService;
+    private final LogExportJobs logExportJobs;
+    private final LogFileSender logFileSender;
+    private final LogTail logTail;
 
     @PostMapping("/filter")
-    public CompletableFuture<ResponseEntity<Map<String, String>>>
-                            filterLogs(@RequestParam String date) {
-        return logService.createFilteredLogFileAsync(date)
-                .thenApply(fileId -> ResponseEntity.ok(Map.of(
-                        "fileId", fileId,
-                        "status", "PROCESSING"
-                )));
+    public ResponseEntity<Map<String, String>> filterLogs(@RequestParam String date) {
+        String fileId = logExportJobs.submit(date);
+        return ResponseEntity.ok(Map.of(
+                "fileId", fileId,
+                "status", logExportJobs.getStatus(fileId)
+        ));
     }
 
     @GetMapping("/status/{fileId}")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> getStatus(
-            @PathVariable String fileId) {
-        return logService.getFileStatusAsync(fileId)
-                .thenApply(status -> ResponseEntity.ok(Map.of(
-                        "fileId", fileId,
-                        "status", status
-                )));
+    public ResponseEntity<Map<String, String>> getStatus(@PathVariable String fileId) {
+        return ResponseEntity.ok(Map.of(
+                "fileId", fileId,
+                "status", logExportJobs.getStatus(fileId)
+        ));
     }
 
     @GetMapping("/download/{fileId}")
-    public CompletableFuture<ResponseEntity<Resource>> downloadFile(
-            @PathVariable String fileId) {
-        return logService.getFileAsync(fileId)
-                .thenApply(resource -> {
-                    String filename = "logs_" + fileId + ".log";
+    public void downloadFile(@PathVariable String fileId,
+                             @RequestParam(required = false) String format,
+                             HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        LogFileSender.Delivery delivery = logFileSender.negotiate(format, request);
+        logFileSender.send(logExportJobs.getFile(fileId, delivery.getFormat()),
+                "logs_" + fileId, delivery, request, response);
+    }
 
-                    return ResponseEntity.ok()
-                            .contentType(MediaType.TEXT_PLAIN)
-                            .header(HttpHeaders.CONTENT_DISPOSITION,
-                                    "attachment; filename=\"" + filename + "\"")
-                            .cacheControl(CacheControl.noCache())
-                            .body(resource);
-                });
+    @PostMapping("/cancel/{fileId}")
+    public ResponseEntity<Map<String, String>> cancel(@PathVariable String fileId) {
+        logExportJobs.cancel(fileId);
+        return ResponseEntity.ok(Map.of(
+                "fileId", fileId,
+                "status", logExportJobs.getStatus(fileId)
+        ));
     }
 
-    @GetMapping("/{date}")
-    public ResponseEntity<Resource> getLogsByDate(@PathVariable String date) throws IOException {
-        List<String> filteredLogs = logService.readLogsByDate(date);
-        File tempLogFile = logService.createFilteredLogFile(filteredLogs, date);
-        return createFileResponse(tempLogFile);
+    @GetMapping("/search")
+    public LogSearchResult search(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String contains,
+            @RequestParam(defaultValue = "100") int limit) throws IOException {
+        return logService.search(new LogSearchQuery(from, to, level, logger, q, contains, limit));
+    }
+
+    @GetMapping("/tail")
+    public SseEmitter tail(@RequestParam(required = false) String level,
+                           @RequestParam(required = false) String logger,
+                           @RequestParam(required = false) String q,
+                           @RequestParam(required = false) String contains) {
+        return logTail.follow(level, logger, q, contains);
     }
 
-    private ResponseEntity<Resource> createFileResponse(File file) throws IOException {
-        UrlResource resource = new UrlResource(file.toURI());
-        return ResponseEntity.ok()
-                .contentType(MediaType.TEXT_PLAIN)
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    @GetMapping("/range")
+    public void getLogsByRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LogFileSender.Delivery delivery = logFileSender.negotiate(format, request);
+        File logFile = logService.createFilteredLogFile(from, to, delivery.getFormat());
+        logFileSender.send(logFile.toPath(), "logs_range", delivery, request, response);
+    }
+
+    @GetMapping("/{date}")
+    public void getLogsByDate(@PathVariable String date,
+                              @RequestParam(required = false) String format,
+                              HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        LogFileSender.Delivery delivery = logFileSender.negotiate(format, request);
+        File logFile = logService.createFilteredLogFile(date, delivery.getFormat());
+        logFileSender.send(logFile.toPath(), "logs_" + date, delivery, request, response);
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,24 @@ package com.example.restservice.controller;
 import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.CustomExceptionHandler;
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.KeysetPage;
 import com.example.restservice.model.Playlist;
 import com.example.restservice.model.PlaylistDto;
 import com.example.restservice.model.PlaylistUpdateRequest;
+import com.example.restservice.service.NdjsonWriter;
 import com.example.restservice.service.PlaylistService;
+import com.example.restservice.service.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/playlists")
@@ -24,18 +31,51 @@ import org.springframework.web.bind.annotation.*;
 @CustomExceptionHandler
 public class PlaylistController {
     private final PlaylistService playlistService;
+    private final ResponseCacheService responseCacheService;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
     @Operation(
             summary = "Get all playlists",
             description = "Retrieves all playlists and information about the songs they contain"
     )
-    public List<PlaylistDto> getAllPlaylists() {
-        List<PlaylistDto> playlists = playlistService.getAllPlaylists();
-        if (playlists.isEmpty()) {
-            throw new NotFoundException("The playlist list is empty");
+    public ResponseEntity<byte[]> getAllPlaylists(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
+        return responseCacheService.get(ResponseCacheService.PLAYLISTS, () -> {
+            List<PlaylistDto> playlists = playlistService.getAllPlaylists();
+            if (playlists.isEmpty()) {
+                throw new NotFoundException("The playlist list is empty");
+            }
+            return playlists;
+        }).toResponse(ifNoneMatch);
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(
+            summary = "Get a page of playlists",
+            description = "Retrieves up to limit playlists with an id greater than after, "
+                    + "ordered by id; pass nextAfter from the response to get the next page"
+    )
+    public KeysetPage<PlaylistDto> getPlaylistsPage(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam int limit) {
+        if (after < 0) {
+            throw new BadRequestException("Invalid after: " + after);
         }
-        return playlists;
+        if (limit <= 0 || limit > KeysetPage.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + KeysetPage.MAX_LIMIT);
+        }
+        return playlistService.getPlaylistsPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream all playlists",
+            description = "Streams every playlist as newline-delimited JSON"
+    )
+    public ResponseEntity<StreamingResponseBody> streamPlaylists() {
+        return ndjsonWriter.response(playlistService::streamAllPlaylists);
     }
 
     @PutMapping("/u/{id}")
@@ -78,7 +118,8 @@ public class PlaylistController {
     @PostMapping("/{playlistId}/add-songs")
     @Operation(
             summary = "Add songs to a playlist",
-            description = "Adds songs to the playlist with the provided id"
+            description = "Appends songs to the playlist with the provided id; "
+                    + "songs already in it are left where they are"
     )
     public Playlist addSongsToPlaylist(@PathVariable Long playlistId,
                                        @RequestBody List<Long> songIds) {
@@ -91,6 +132,39 @@ public class PlaylistController {
         return playlistService.addSongsToPlaylist(playlistId, songIds);
     }
 
+    @PostMapping("/{playlistId}/remove-songs")
+    @Operation(
+            summary = "Remove songs from a playlist",
+            description = "Removes songs from the playlist with the provided id"
+    )
+    public Playlist removeSongsFromPlaylist(@PathVariable Long playlistId,
+                                            @RequestBody List<Long> songIds) {
+        if (playlistId == null || playlistId <= 0) {
+            throw new BadRequestException("Invalid playlistId: " + playlistId);
+        }
+        if (songIds == null || songIds.isEmpty()) {
+            throw new BadRequestException("The songIds list cannot be empty");
+        }
+        return playlistService.removeSongsFromPlaylist(playlistId, songIds);
+    }
+
+    @PutMapping("/{playlistId}/songs/{songId}")
+    @Operation(
+            summary = "Move a song within a playlist",
+            description = "Moves a song of the playlist to the given index, counting from 0"
+    )
+    public Playlist moveSong(@PathVariable Long playlistId,
+                             @PathVariable Long songId,
+                             @RequestParam int index) {
+        if (playlistId == null || playlistId <= 0) {
+            throw new BadRequestException("Invalid playlistId: " + playlistId);
+        }
+        if (songId == null || songId <= 0) {
+            throw new BadRequestException("Invalid songId: " + songId);
+        }
+        return playlistService.moveSong(playlistId, songId, index);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete a playlist",
@@ -107,15 +181,23 @@ public class PlaylistController {
     @GetMapping("/with-songs")
     @Operation(
             summary = "Get non-empty playlists",
-            description = "Retrieves all playlists and information about the songs they contain, "
-                    + "if they are not empty"
+            description = "Retrieves a page of playlists that contain at least one song, "
+                    + "ordered by id; pass nextAfter from the response to get the next page"
     )
-    public List<Playlist> getPlaylistsWithSongs() {
-        List<Playlist> playlists = playlistService.getPlaylistsWithSongs();
-        if (playlists.isEmpty()) {
+    public KeysetPage<PlaylistDto> getPlaylistsWithSongs(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (after < 0) {
+            throw new BadRequestException("Invalid after: " + after);
+        }
+        if (limit <= 0 || limit > KeysetPage.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + KeysetPage.MAX_LIMIT);
+        }
+        KeysetPage<PlaylistDto> page = playlistService.getPlaylistsWithSongsPage(after, limit);
+        if (page.getItems().isEmpty()) {
             throw new NotFoundException("No non-empty playlists found");
         }
-        return playlists;
+        return page;
     }
 
 }
\ No newline at end of file
@@ -3,23 +3,38 @@ package com.example.restservice.controller;
 import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.CustomExceptionHandler;
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.ImportReport;
+import com.example.restservice.model.KeysetPage;
 import com.example.restservice.model.Song;
 import com.example.restservice.model.SongDto;
+import com.example.restservice.model.SongSummary;
+import com.example.restservice.service.CatalogImporter;
+import com.example.restservice.service.ImportFormat;
+import com.example.restservice.service.NdjsonWriter;
+import com.example.restservice.service.ResponseCacheService;
 import com.example.restservice.service.SongService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/songs")
@@ -28,6 +43,9 @@ import org.springframework.web.bind.annotation.RestController;
 @CustomExceptionHandler
 public class SongController {
     private final SongService songService;
+    private final ResponseCacheService responseCacheService;
+    private final NdjsonWriter ndjsonWriter;
+    private final CatalogImporter catalogImporter;
     private static final String MESSAGE = "Song with id ";
 
     @GetMapping
@@ -35,12 +53,43 @@ public class SongController {
             summary = "Get all songs",
             description = "Retrieves all stored songs"
     )
-    public List<SongDto> getAllSongs() {
-        List<SongDto> songs = songService.getAllSongs();
-        if (songs.isEmpty()) {
-            throw new NotFoundException("The song list is empty");
+    public ResponseEntity<byte[]> getAllSongs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
+        return responseCacheService.get(ResponseCacheService.SONGS, () -> {
+            List<SongDto> songs = songService.getAllSongs();
+            if (songs.isEmpty()) {
+                throw new NotFoundException("The song list is empty");
+            }
+            return songs;
+        }).toResponse(ifNoneMatch);
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(
+            summary = "Get a page of songs",
+            description = "Retrieves up to limit songs with an id greater than after, "
+                    + "ordered by id; pass nextAfter from the response to get the next page"
+    )
+    public KeysetPage<SongDto> getSongsPage(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam int limit) {
+        if (after < 0) {
+            throw new BadRequestException("Invalid after: " + after);
         }
-        return songs;
+        if (limit <= 0 || limit > KeysetPage.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + KeysetPage.MAX_LIMIT);
+        }
+        return songService.getSongsPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream all songs",
+            description = "Streams every song as newline-delimited JSON"
+    )
+    public ResponseEntity<StreamingResponseBody> streamSongs() {
+        return ndjsonWriter.response(songService::streamAllSongs);
     }
 
     @GetMapping("/{id}")
@@ -71,6 +120,23 @@ public class SongController {
         return songService.createSongs(songs);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    @Operation(
+            summary = "Import songs in bulk",
+            description = "Streams a JSON array, NDJSON or CSV body of any size into the "
+                    + "database in chunks, each committed on its own; after a failure, "
+                    + "send the same body again with resumeFrom set to nextRecord"
+    )
+    public ResponseEntity<ImportReport> importSongs(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "0") long resumeFrom) throws IOException {
+        ImportReport report = catalogImporter.importSongs(request.getInputStream(),
+                ImportFormat.of(request.getContentType()), resumeFrom);
+        return report.isCompleted() ? ResponseEntity.ok(report)
+                : ResponseEntity.badRequest().body(report);
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Update a song",
@@ -99,23 +165,34 @@ public class SongController {
         if (id == null || id <= 0) {
             throw new BadRequestException("Invalid id: " + id);
         }
-        if (songService.getSongById(id) == null) {
-            throw new NotFoundException(MESSAGE + id + " not found");
-        }
         songService.deleteSong(id);
     }
 
+    @PostMapping("/batch-delete")
+    @Operation(
+            summary = "Delete songs in bulk",
+            description = "Deletes up to " + BatchDeleteResult.MAX_IDS + " songs by id, "
+                    + "along with their playlist entries, and reports the ids that matched nothing"
+    )
+    public BatchDeleteResult deleteSongs(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > BatchDeleteResult.MAX_IDS) {
+            throw new BadRequestException("ids must hold between 1 and "
+                    + BatchDeleteResult.MAX_IDS + " values");
+        }
+        return songService.deleteSongs(ids);
+    }
+
     @GetMapping("/by-artist")
     @Operation(
             summary = "Get songs by artist",
             description = "Retrieves all songs by the specified artist"
     )
-    public List<Song> getSongsByArtist(@RequestParam @Parameter(description = "Artist's pseudonym",
+    public List<SongSummary> getSongsByArtist(@RequestParam @Parameter(description = "Artist's pseudonym",
             example = "Монеточка") String artist) {
         if (artist == null || artist.isEmpty()) {
             throw new BadRequestException("Artist name cannot be empty");
         }
-        List<Song> songs = songService.getSongsByArtist(artist);
+        List<SongSummary> songs = songService.getSongsByArtist(artist);
         if (songs.isEmpty()) {
             throw new NotFoundException("No songs found for artist " + artist);
         }
@@ -1,7 +1,15 @@
 package com.example.restservice.controller;
 
+import com.example.restservice.aspect.MethodLogQueue;
+import com.example.restservice.aspect.MethodLogStats;
+import com.example.restservice.aspect.MethodTiming;
+import com.example.restservice.aspect.MethodTimings;
+import com.example.restservice.service.CacheStats;
+import com.example.restservice.service.CacheStore;
 import com.example.restservice.service.VisitCounterService;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,14 +20,45 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/statistics")
 public class StatisticsController {
     private final VisitCounterService visitCounterService;
+    private final Map<String, CacheStore<?, ?>> caches;
+    private final MethodLogQueue methodLogQueue;
+    private final MethodTimings methodTimings;
 
     @Autowired
-    public StatisticsController(VisitCounterService visitCounterService) {
+    public StatisticsController(VisitCounterService visitCounterService,
+                                Map<String, CacheStore<?, ?>> caches,
+                                MethodLogQueue methodLogQueue,
+                                MethodTimings methodTimings) {
         this.visitCounterService = visitCounterService;
+        this.caches = caches;
+        this.methodLogQueue = methodLogQueue;
+        this.methodTimings = methodTimings;
     }
 
     @GetMapping("/visits")
     public Map<String, Long> getVisitStatistics() {
         return visitCounterService.getAllCounts();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cache")
+    public Map<String, CacheStats> getCacheStatistics() {
+        Map<String, CacheStats> result = new TreeMap<>();
+        caches.forEach((name, cache) -> result.put(name, cache.stats()));
+        return result;
+    }
+
+    @GetMapping("/logging")
+    public MethodLogStats getLoggingStatistics() {
+        return methodLogQueue.stats();
+    }
+
+    @GetMapping("/timings")
+    public List<MethodTiming> getTimings() {
+        return methodTimings.timings();
+    }
+
+    @GetMapping(value = "/prometheus", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String getPrometheusMetrics() {
+        return methodTimings.prometheus();
+    }
+}
@@ -3,15 +3,28 @@ package com.example.restservice.controller;
 import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.CustomExceptionHandler;
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.ImportReport;
+import com.example.restservice.model.KeysetPage;
 import com.example.restservice.model.User;
 import com.example.restservice.model.UserDto;
 import com.example.restservice.model.UserUpdateRequest;
+import com.example.restservice.service.CatalogImporter;
+import com.example.restservice.service.ImportFormat;
+import com.example.restservice.service.NdjsonWriter;
+import com.example.restservice.service.ResponseCacheService;
 import com.example.restservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/users")
@@ -21,18 +34,52 @@ import org.springframework.web.bind.annotation.*;
 @CustomExceptionHandler
 public class UserController {
     private final UserService userService;
+    private final ResponseCacheService responseCacheService;
+    private final NdjsonWriter ndjsonWriter;
+    private final CatalogImporter catalogImporter;
 
     @GetMapping
     @Operation(
             summary = "Get all users",
             description = "Retrieves all users and their information"
     )
-    public List<UserDto> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
-        if (users.isEmpty()) {
-            throw new NotFoundException("The user list is empty");
+    public ResponseEntity<byte[]> getAllUsers(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
+        return responseCacheService.get(ResponseCacheService.USERS, () -> {
+            List<UserDto> users = userService.getAllUsers();
+            if (users.isEmpty()) {
+                throw new NotFoundException("The user list is empty");
+            }
+            return users;
+        }).toResponse(ifNoneMatch);
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(
+            summary = "Get a page of users",
+            description = "Retrieves up to limit users with an id greater than after, "
+                    + "ordered by id; pass nextAfter from the response to get the next page"
+    )
+    public KeysetPage<UserDto> getUsersPage(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam int limit) {
+        if (after < 0) {
+            throw new BadRequestException("Invalid after: " + after);
+        }
+        if (limit <= 0 || limit > KeysetPage.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + KeysetPage.MAX_LIMIT);
         }
-        return users;
+        return userService.getUsersPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream all users",
+            description = "Streams every user as newline-delimited JSON"
+    )
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return ndjsonWriter.response(userService::streamAllUsers);
     }
 
     @GetMapping("/{id}")
@@ -59,6 +106,23 @@ public class UserController {
         return userService.createUsers(users);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    @Operation(
+            summary = "Import users in bulk",
+            description = "Streams a JSON array, NDJSON or CSV body of any size into the "
+                    + "database in chunks, each committed on its own; after a failure, "
+                    + "send the same body again with resumeFrom set to nextRecord"
+    )
+    public ResponseEntity<ImportReport> importUsers(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "0") long resumeFrom) throws IOException {
+        ImportReport report = catalogImporter.importUsers(request.getInputStream(),
+                ImportFormat.of(request.getContentType()), resumeFrom);
+        return report.isCompleted() ? ResponseEntity.ok(report)
+                : ResponseEntity.badRequest().body(report);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update user")
     public void updateUser(
@@ -74,10 +138,20 @@ public class UserController {
             description = "Deletes a user by their id"
     )
     public void deleteUser(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        if (user == null) {
-            throw new NotFoundException("User with id " + id + " not found");
-        }
         userService.deleteUser(id);
     }
+
+    @PostMapping("/batch-delete")
+    @Operation(
+            summary = "Delete users in bulk",
+            description = "Deletes up to " + BatchDeleteResult.MAX_IDS + " users by id, "
+                    + "along with their playlists, and reports the ids that matched nothing"
+    )
+    public BatchDeleteResult deleteUsers(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > BatchDeleteResult.MAX_IDS) {
+            throw new BadRequestException("ids must hold between 1 and "
+                    + BatchDeleteResult.MAX_IDS + " values");
+        }
+        return userService.deleteUsers(ids);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.restservice.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of deleting many rows by id in one request.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchDeleteResult {
+    public static final int MAX_IDS = 1000;
+
+    private final int deleted;
+    private final List<Long> missing; // requested ids that matched no row
+
+    public static BatchDeleteResult of(int deleted, Collection<Long> requested,
+                                       Collection<Long> found) {
+        Set<Long> present = new HashSet<>(found);
+        List<Long> missing = requested.stream()
+                .distinct()
+                .filter(id -> !present.contains(id))
+                .collect(Collectors.toList());
+        return new BatchDeleteResult(deleted, missing);
+    }
+}
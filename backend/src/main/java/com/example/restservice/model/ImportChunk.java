@@ -0,0 +1,16 @@
+package com.example.restservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One committed chunk of an import: which records it held and how long
+ * parsing and writing them took.
+ */
+@Getter
+@AllArgsConstructor
+public class ImportChunk {
+    private final long firstRecord;
+    private final int rows;
+    private final long elapsedMillis;
+}
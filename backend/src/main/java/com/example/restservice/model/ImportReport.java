@@ -0,0 +1,35 @@
+package com.example.restservice.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a bulk import: the chunks committed, each in its own
+ * transaction, and the record to resume from if the import stopped early.
+ */
+@Getter
+@AllArgsConstructor
+public class ImportReport {
+    private final long resumedFrom; // records skipped because an earlier import committed them
+    private final long rows;
+    private final List<ImportChunk> chunks;
+    private final long elapsedMillis;
+    private final String error; // null when the whole input was imported
+
+    /**
+     * Number of leading records now in the database; pass it as
+     * {@code ?resumeFrom=} to continue an import that failed.
+     */
+    public long getNextRecord() {
+        return resumedFrom + rows;
+    }
+
+    public boolean isCompleted() {
+        return error == null;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.restservice.model;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+    public static final int MAX_LIMIT = 1000;
+
+    private final List<T> items;
+    private final Long nextAfter; // id to pass as ?after= for the next page, null on the last one
+
+    /**
+     * Builds a page from a query that fetched {@code limit + 1} rows; the extra
+     * row only signals that another page exists.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> idExtractor) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, idExtractor.apply(items.get(limit - 1)));
+    }
+}
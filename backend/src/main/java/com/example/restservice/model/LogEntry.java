@@ -0,0 +1,18 @@
+package com.example.restservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One log entry: a timestamped line together with its continuation lines,
+ * such as a stack trace. Level and logger are {@code null} for lines written
+ * before the log pattern carried them.
+ */
+@Getter
+@AllArgsConstructor
+public class LogEntry {
+    private final String timestamp;
+    private final String level;
+    private final String logger;
+    private final String message;
+}
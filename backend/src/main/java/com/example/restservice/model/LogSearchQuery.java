@@ -0,0 +1,23 @@
+package com.example.restservice.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Criteria of a log search; every criterion except the time range is
+ * optional and all given ones must hold.
+ */
+@Getter
+@AllArgsConstructor
+public class LogSearchQuery {
+    public static final int MAX_LIMIT = 1000;
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String level;
+    private final String logger; // full name or a trailing part of it, e.g. LoggingAspect
+    private final String terms; // words that must all occur, matched as whole tokens
+    private final String contains; // case-insensitive substring
+    private final int limit;
+}
@@ -0,0 +1,14 @@
+package com.example.restservice.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LogSearchResult {
+    private final List<LogEntry> entries;
+    private final boolean truncated; // more entries matched than the limit allowed
+    private final long blocksScanned;
+    private final long blocksTotal;
+}
@@ -0,0 +1,27 @@
+package com.example.restservice.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One row of a name lookup for a batch of owners, e.g. a playlist name of a
+ * song or a song title of a playlist.
+ */
+@Getter
+@AllArgsConstructor
+public class OwnerName {
+    private final Long ownerId;
+    private final String name;
+
+    public static Map<Long, List<String>> groupByOwner(List<OwnerName> rows) {
+        Map<Long, List<String>> result = new HashMap<>();
+        for (OwnerName row : rows) {
+            result.computeIfAbsent(row.getOwnerId(), id -> new ArrayList<>()).add(row.getName());
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.restservice.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -11,6 +12,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
@@ -18,6 +20,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.SQLOrder;
 
 @Entity
 @Table(name = "playlists")
@@ -28,7 +32,9 @@ import lombok.Setter;
 @Schema(description = "Playlist entity")
 public class Playlist {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlists_seq")
+    @SequenceGenerator(name = "playlists_seq", sequenceName = "playlists_seq",
+            allocationSize = 50)
     @Schema(description = "Playlist ID", example = "1",
             accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
@@ -42,7 +48,11 @@ public class Playlist {
     @Schema(description = "User entity", accessMode = Schema.AccessMode.READ_ONLY)
     private User user;
 
+    // A read-only view: rows are written through PlaylistSong, which keeps each
+    // song's position, and Hibernate refuses to flush changes made to this list
     @ManyToMany
+    @Immutable
+    @SQLOrder("position")
     @JoinTable(
             name = "playlist_songs",
             joinColumns = @JoinColumn(name = "playlist_id"),
@@ -50,5 +60,6 @@ public class Playlist {
     )
     @Schema(description = "List of songs that are stored in current playlist",
                                     accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private List<Song> songs;
 }
@@ -7,6 +7,7 @@ import lombok.Setter;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Getter
@@ -31,4 +32,9 @@ public class PlaylistDto {
                 Collections.emptyList());
         return dto;
     }
+
+    public static PlaylistDto fromRow(PlaylistRow row, Map<Long, List<String>> songTitles) {
+        return new PlaylistDto(row.getId(), row.getName(), row.getUsername(),
+                songTitles.getOrDefault(row.getId(), List.of()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.restservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PlaylistRow {
+    private final Long id;
+    private final String name;
+    private final Long userId;
+    private final String username;
+}
@@ -0,0 +1,55 @@
+package com.example.restservice.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A song's place in a playlist: one row of the playlist_songs table that
+ * {@link Playlist#getSongs()} reads. Membership changes go through this
+ * entity, so adding, removing or moving one song writes only its own row.
+ * Positions are sparse, leaving room to move a song between two others
+ * without renumbering the rest.
+ */
+@Entity
+@Table(name = "playlist_songs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PlaylistSong implements Persistable<PlaylistSongId> {
+    @EmbeddedId
+    private PlaylistSongId id;
+
+    private Long position;
+
+    @Transient
+    private boolean persisted;
+
+    public PlaylistSong(Long playlistId, Long songId, long position) {
+        this.id = new PlaylistSongId(playlistId, songId);
+        this.position = position;
+    }
+
+    public Long getSongId() {
+        return id.getSongId();
+    }
+
+    // Ids are assigned, so without this save() would look each row up before inserting it
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.restservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class PlaylistSongId implements Serializable {
+    @Column(name = "playlist_id")
+    private Long playlistId;
+
+    @Column(name = "song_id")
+    private Long songId;
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -23,8 +24,13 @@ import lombok.Setter;
 @AllArgsConstructor
 @Schema(description = "Song entity")
 public class Song {
+    // Ids one call to songs_seq reserves; bulk imports draw blocks of the same size
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "songs_seq")
+    @SequenceGenerator(name = "songs_seq", sequenceName = "songs_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     @Schema(description = "Song ID", example = "1",
             accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 // SongDTO.java
@@ -29,4 +30,9 @@ public class SongDto {
                 .collect(Collectors.toList()));
         return dto;
     }
+
+    public static SongDto fromSummary(SongSummary song, Map<Long, List<String>> playlistNames) {
+        return new SongDto(song.getId(), song.getTitle(), song.getArtist(),
+                playlistNames.getOrDefault(song.getId(), List.of()));
+    }
 }
\ No newline at end of file
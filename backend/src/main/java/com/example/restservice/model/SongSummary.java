@@ -0,0 +1,16 @@
+package com.example.restservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Detached, immutable view of a song used by the artist cache. It carries no
+ * persistence-context state, so cached entries never trigger lazy loading.
+ */
+@Getter
+@AllArgsConstructor
+public final class SongSummary {
+    private final Long id;
+    private final String title;
+    private final String artist;
+}
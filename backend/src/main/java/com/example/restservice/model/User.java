@@ -10,6 +10,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -26,8 +27,13 @@ import lombok.Setter;
 @AllArgsConstructor
 @Schema(description = "User entity")
 public class User {
+    // Ids one call to users_seq reserves; bulk imports draw blocks of the same size
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     @Schema(description = "User ID",
             example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +20,10 @@ public class UserDto {
     private String username; // Только имя пользователя
     private List<PlaylistDto> playlists; // Список DTO плейлистов
 
+    public UserDto(Long id, String username) {
+        this(id, username, new ArrayList<>());
+    }
+
     public static UserDto fromEntity(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
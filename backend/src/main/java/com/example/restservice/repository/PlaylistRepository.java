@@ -1,26 +1,62 @@
 package com.example.restservice.repository;
 
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistRow;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
 
-    // 1. Ваш существующий нативный запрос
-    @Query(value = """
-        SELECT p.*
-        FROM playlists p
-        JOIN playlist_songs ps ON p.id = ps.playlist_id
-        GROUP BY p.id
-        HAVING COUNT(ps.song_id) > 0
-        """, nativeQuery = true)
-    List<Playlist> findPlaylistsWithSongs();
-
-    @Query("SELECT DISTINCT p FROM Playlist p LEFT JOIN FETCH p.songs WHERE p IN :playlists")
-    List<Playlist> fetchSongsForPlaylists(@Param("playlists") List<Playlist> playlists);
+    // IS NOT EMPTY renders as a correlated EXISTS on playlist_songs, so each playlist
+    // stops at its first song instead of grouping the whole join table
+    @Query("SELECT new com.example.restservice.model.PlaylistRow(p.id, p.name, u.id, u.username) "
+            + "FROM Playlist p LEFT JOIN p.user u "
+            + "WHERE p.id > :after AND p.songs IS NOT EMPTY ORDER BY p.id")
+    List<PlaylistRow> findNonEmptyRowsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.example.restservice.model.PlaylistRow(p.id, p.name, u.id, u.username) "
+            + "FROM Playlist p LEFT JOIN p.user u ORDER BY p.id")
+    List<PlaylistRow> findAllRows();
+
+    @Query("SELECT new com.example.restservice.model.PlaylistRow(p.id, p.name, u.id, u.username) "
+            + "FROM Playlist p LEFT JOIN p.user u WHERE p.id > :after ORDER BY p.id")
+    List<PlaylistRow> findRowsAfter(@Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.restservice.model.PlaylistRow(p.id, p.name, u.id, u.username) "
+            + "FROM Playlist p LEFT JOIN p.user u ORDER BY p.id")
+    Stream<PlaylistRow> streamAllRows();
+
+    @Query("SELECT new com.example.restservice.model.PlaylistRow(p.id, p.name, u.id, u.username) "
+            + "FROM Playlist p JOIN p.user u WHERE u.id IN :userIds ORDER BY p.id")
+    List<PlaylistRow> findRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT new com.example.restservice.model.OwnerName(ps.id.playlistId, s.title) "
+            + "FROM PlaylistSong ps JOIN Song s ON s.id = ps.id.songId "
+            + "ORDER BY ps.position, s.id")
+    List<OwnerName> findAllSongTitles();
+
+    @Query("SELECT new com.example.restservice.model.OwnerName(ps.id.playlistId, s.title) "
+            + "FROM PlaylistSong ps JOIN Song s ON s.id = ps.id.songId "
+            + "WHERE ps.id.playlistId IN :playlistIds ORDER BY ps.position, s.id")
+    List<OwnerName> findSongTitlesByPlaylistIds(
+            @Param("playlistIds") Collection<Long> playlistIds);
+
+    // Hibernate clears the playlists' playlist_songs rows in one statement before this one
+    @Modifying
+    @Query("DELETE FROM Playlist p WHERE p.user.id IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
 
 }
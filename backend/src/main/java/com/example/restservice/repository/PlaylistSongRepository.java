@@ -0,0 +1,34 @@
+package com.example.restservice.repository;
+
+import com.example.restservice.model.PlaylistSong;
+import com.example.restservice.model.PlaylistSongId;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PlaylistSongRepository extends JpaRepository<PlaylistSong, PlaylistSongId> {
+
+    @Query("SELECT ps FROM PlaylistSong ps WHERE ps.id.playlistId = :playlistId "
+            + "ORDER BY ps.position, ps.id.songId")
+    List<PlaylistSong> findByPlaylistId(@Param("playlistId") Long playlistId);
+
+    @Query("SELECT ps.id.songId FROM PlaylistSong ps "
+            + "WHERE ps.id.playlistId = :playlistId AND ps.id.songId IN :songIds")
+    List<Long> findSongIdsIn(@Param("playlistId") Long playlistId,
+                             @Param("songIds") Collection<Long> songIds);
+
+    @Query("SELECT MAX(ps.position) FROM PlaylistSong ps WHERE ps.id.playlistId = :playlistId")
+    Long findLastPosition(@Param("playlistId") Long playlistId);
+
+    @Modifying
+    @Query("DELETE FROM PlaylistSong ps "
+            + "WHERE ps.id.playlistId = :playlistId AND ps.id.songId IN :songIds")
+    int deleteSongs(@Param("playlistId") Long playlistId,
+                    @Param("songIds") Collection<Long> songIds);
+
+}
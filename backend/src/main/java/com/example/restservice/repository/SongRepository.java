@@ -1,16 +1,58 @@
 package com.example.restservice.repository;
 
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Song;
+import com.example.restservice.model.SongSummary;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
 @Repository
 public interface SongRepository extends JpaRepository<Song, Long> {
-    @Query("SELECT s FROM Song s WHERE s.artist = :artist")
-    List<Song> findByArtist(@Param("artist") String artist);
-}
+    @Query("SELECT new com.example.restservice.model.SongSummary(s.id, s.title, s.artist) "
+            + "FROM Song s WHERE s.artist = :artist")
+    List<SongSummary> findSummariesByArtist(@Param("artist") String artist);
+
+    @Query("SELECT new com.example.restservice.model.SongSummary(s.id, s.title, s.artist) "
+            + "FROM Song s ORDER BY s.id")
+    List<SongSummary> findAllSummaries();
+
+    @Query("SELECT new com.example.restservice.model.SongSummary(s.id, s.title, s.artist) "
+            + "FROM Song s WHERE s.id > :after ORDER BY s.id")
+    List<SongSummary> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.restservice.model.SongSummary(s.id, s.title, s.artist) "
+            + "FROM Song s ORDER BY s.id")
+    Stream<SongSummary> streamAllSummaries();
+
+    @Query("SELECT new com.example.restservice.model.OwnerName(s.id, p.name) "
+            + "FROM Song s JOIN s.playlists p ORDER BY p.id")
+    List<OwnerName> findAllPlaylistNames();
 
+    @Query("SELECT new com.example.restservice.model.OwnerName(s.id, p.name) "
+            + "FROM Song s JOIN s.playlists p WHERE s.id IN :songIds ORDER BY p.id")
+    List<OwnerName> findPlaylistNamesBySongIds(@Param("songIds") Collection<Long> songIds);
+
+    @Query("SELECT s.id FROM Song s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.restservice.model.SongSummary(s.id, s.title, s.artist) "
+            + "FROM Song s WHERE s.id IN :ids")
+    List<SongSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Hibernate clears the songs' playlist_songs rows in one statement before this one
+    @Modifying
+    @Query("DELETE FROM Song s WHERE s.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
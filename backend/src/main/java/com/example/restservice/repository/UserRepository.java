@@ -2,17 +2,45 @@ package com.example.restservice.repository;
 
 import com.example.restservice.model.Playlist;
 import com.example.restservice.model.User;
+import com.example.restservice.model.UserDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     @EntityGraph(attributePaths = {"playlists"})
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.playlists")
     List<User> findAllWithPlaylists();
+
+    @Query("SELECT new com.example.restservice.model.UserDto(u.id, u.username) "
+            + "FROM User u ORDER BY u.id")
+    List<UserDto> findAllRows();
+
+    @Query("SELECT new com.example.restservice.model.UserDto(u.id, u.username) "
+            + "FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<UserDto> findRowsAfter(@Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.restservice.model.UserDto(u.id, u.username) "
+            + "FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAllRows();
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
 
@@ -1,36 +1,31 @@
 package com.example.restservice.service;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import org.springframework.stereotype.Component;
+import com.example.restservice.model.SongSummary;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
-@Component
-public class CacheConfig<K, V> extends LinkedHashMap<K, V> {
-    public static final int MAXSIZE = 3;
+@Configuration
+public class CacheConfig {
 
-    public CacheConfig() {
-        super(MAXSIZE + 1, 1.f, true);
+    @Bean
+    public CacheStore<String, List<SongSummary>> songsCache(
+            @Value("${cache.songs.max-entries:500}") int maxEntries,
+            @Value("${cache.songs.max-songs:20000}") long maxSongs,
+            @Value("${cache.songs.ttl:10m}") Duration ttl,
+            @Value("${cache.songs.refresh-after-write:5m}") Duration refreshAfterWrite) {
+        // An entry weighs as much as the number of songs it holds
+        return new SegmentedLruCache<>(maxEntries, maxSongs, ttl, refreshAfterWrite,
+                List::size, System::nanoTime);
     }
 
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-        return size() > MAXSIZE;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-
-        return super.equals(o);
-    }
-
-    @Override
-    public int hashCode() {
-        return super.hashCode();
+    @Bean
+    public CacheStore<String, CachedJson> responseCache(
+            @Value("${cache.responses.max-entries:16}") int maxEntries,
+            @Value("${cache.responses.max-bytes:67108864}") long maxBytes) {
+        return new SegmentedLruCache<>(maxEntries, maxBytes, Duration.ZERO,
+                json -> json.getBody().length);
     }
 }
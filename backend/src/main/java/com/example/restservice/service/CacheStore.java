@@ -0,0 +1,27 @@
+package com.example.restservice.service;
+
+import java.util.function.Function;
+
+public interface CacheStore<K, V> {
+
+    /**
+     * Returns the cached value or {@code null} if the key is absent or expired.
+     */
+    V get(K key);
+
+    /**
+     * Returns the cached value, loading it on a miss. Concurrent misses for the
+     * same key share a single loader call instead of each hitting the source.
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    void put(K key, V value);
+
+    void remove(K key);
+
+    void clear();
+
+    int size();
+
+    CacheStats stats();
+}
@@ -0,0 +1,273 @@
+package com.example.restservice.service;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.model.ImportChunk;
+import com.example.restservice.model.ImportReport;
+import com.example.restservice.model.Song;
+import com.example.restservice.model.SongSummary;
+import com.example.restservice.model.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports songs and users from bodies of any size. Records are parsed one
+ * at a time with a streaming parser, checked as they arrive and written in
+ * chunks of {@code chunkSize}, each chunk as one JDBC batch in its own
+ * transaction, with ids drawn in blocks from the table's sequence. Memory
+ * use stays at one chunk however long the input is.
+ *
+ * <p>An import stops at the first invalid record or failed chunk. Chunks
+ * already committed stay committed, and the report says which record to
+ * resume from once the input is fixed; records before {@code resumeFrom}
+ * are skipped without being read into objects.
+ */
+@Service
+public class CatalogImporter {
+    private static final String INSERT_SONG_SQL =
+            "INSERT INTO songs (id, title, artist) VALUES (?, ?, ?)";
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, username) VALUES (?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .build();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdSequences idSequences;
+    private final CacheStore<String, List<SongSummary>> songsCache;
+    private final ResponseCacheService responseCacheService;
+    private final int chunkSize;
+
+    public CatalogImporter(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate, IdSequences idSequences,
+                           CacheStore<String, List<SongSummary>> songsCache,
+                           ResponseCacheService responseCacheService,
+                           @Value("${imports.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idSequences = idSequences;
+        this.songsCache = songsCache;
+        this.responseCacheService = responseCacheService;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importSongs(InputStream body, ImportFormat format, long resumeFrom)
+            throws IOException {
+        return run(body, format, resumeFrom, Song.class, new SongWriter());
+    }
+
+    public ImportReport importUsers(InputStream body, ImportFormat format, long resumeFrom)
+            throws IOException {
+        return run(body, format, resumeFrom, User.class, new UserWriter());
+    }
+
+    private <T> ImportReport run(InputStream body, ImportFormat format, long resumeFrom,
+                                 Class<T> type, ChunkWriter<T> writer) throws IOException {
+        if (resumeFrom < 0) {
+            throw new BadRequestException("Invalid resumeFrom: " + resumeFrom);
+        }
+        long start = System.nanoTime();
+        List<ImportChunk> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        long chunkStart = start;
+        long record = 0; // index of the record being read
+        long rows = 0;
+        String error = null;
+        try (JsonParser parser = open(body, format)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (record < resumeFrom) {
+                    parser.skipChildren();
+                    record++;
+                    continue;
+                }
+                T value = objectMapper.readValue(parser, type);
+                String problem = writer.check(value);
+                if (problem != null) {
+                    error = problem + " at record " + record;
+                    break;
+                }
+                if (chunk.isEmpty()) {
+                    chunkStart = System.nanoTime();
+                }
+                chunk.add(value);
+                record++;
+                if (chunk.size() == chunkSize) {
+                    error = commit(chunk, record - chunk.size(), chunkStart, writer, chunks);
+                    if (error != null) {
+                        break;
+                    }
+                    rows += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (error == null && token != endToken(format)) {
+                error = "Expected an object at record " + record;
+            }
+            if (error == null && !chunk.isEmpty()) {
+                error = commit(chunk, record - chunk.size(), chunkStart, writer, chunks);
+                rows += error == null ? chunk.size() : 0;
+            }
+        } catch (JsonProcessingException e) {
+            error = "Invalid input at record " + record + ": " + e.getOriginalMessage();
+        } finally {
+            if (!chunks.isEmpty()) {
+                responseCacheService.invalidate();
+            }
+        }
+        if (record < resumeFrom && error == null) {
+            error = "The input has only " + record + " records, fewer than resumeFrom";
+        }
+        return new ImportReport(Math.min(resumeFrom, record), rows, chunks,
+                (System.nanoTime() - start) / 1_000_000, error);
+    }
+
+    private JsonParser open(InputStream body, ImportFormat format) throws IOException {
+        switch (format) {
+            case CSV:
+                CsvParser csv = csvMapper.getFactory().createParser(body);
+                csv.setSchema(CsvSchema.emptySchema().withHeader());
+                return csv;
+            case JSON_ARRAY:
+                JsonParser parser = objectMapper.getFactory().createParser(body);
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    parser.close();
+                    throw new BadRequestException("Expected a JSON array");
+                }
+                return parser;
+            default:
+                return objectMapper.getFactory().createParser(body);
+        }
+    }
+
+    private static JsonToken endToken(ImportFormat format) {
+        return format == ImportFormat.JSON_ARRAY ? JsonToken.END_ARRAY : null;
+    }
+
+    /**
+     * Writes one chunk in a transaction and returns why it failed, or null.
+     */
+    private <T> String commit(List<T> chunk, long firstRecord, long chunkStart,
+                              ChunkWriter<T> writer, List<ImportChunk> chunks) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.insert(chunk));
+        } catch (DataAccessException e) {
+            return "Chunk starting at record " + firstRecord + " was rolled back: "
+                    + e.getMostSpecificCause().getMessage();
+        }
+        writer.committed(chunk);
+        chunks.add(new ImportChunk(firstRecord, chunk.size(),
+                (System.nanoTime() - chunkStart) / 1_000_000));
+        return null;
+    }
+
+    private interface ChunkWriter<T> {
+        /**
+         * Returns why {@code value} cannot be imported, or null.
+         */
+        String check(T value);
+
+        void insert(List<T> chunk);
+
+        default void committed(List<T> chunk) {
+        }
+    }
+
+    private final class SongWriter implements ChunkWriter<Song> {
+        private final IdBlock ids = new IdBlock("songs_seq", Song.ID_ALLOCATION_SIZE);
+
+        @Override
+        public String check(Song song) {
+            if (song.getTitle() == null || song.getTitle().isBlank()) {
+                return "Song title must not be empty";
+            }
+            if (song.getArtist() == null || song.getArtist().isBlank()) {
+                return "Song artist must not be empty";
+            }
+            return null;
+        }
+
+        @Override
+        public void insert(List<Song> chunk) {
+            for (Song song : chunk) {
+                song.setId(ids.next());
+            }
+            jdbcTemplate.batchUpdate(INSERT_SONG_SQL, chunk, chunk.size(), (statement, song) -> {
+                statement.setLong(1, song.getId());
+                statement.setString(2, song.getTitle());
+                statement.setString(3, song.getArtist());
+            });
+        }
+
+        @Override
+        public void committed(List<Song> chunk) {
+            Set<String> artists = new HashSet<>();
+            chunk.forEach(song -> artists.add(song.getArtist()));
+            artists.forEach(songsCache::remove);
+        }
+    }
+
+    private final class UserWriter implements ChunkWriter<User> {
+        private final IdBlock ids = new IdBlock("users_seq", User.ID_ALLOCATION_SIZE);
+
+        @Override
+        public String check(User user) {
+            if (user.getUsername() == null || user.getUsername().isBlank()) {
+                return "Username must not be empty";
+            }
+            return null;
+        }
+
+        @Override
+        public void insert(List<User> chunk) {
+            for (User user : chunk) {
+                user.setId(ids.next());
+            }
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, chunk, chunk.size(), (statement, user) -> {
+                statement.setLong(1, user.getId());
+                statement.setString(2, user.getUsername());
+            });
+        }
+    }
+
+    /**
+     * Hands out the ids of the blocks reserved from a sequence in turn.
+     */
+    private final class IdBlock {
+        private final String sequence;
+        private final int size;
+        private long next;
+        private long end;
+
+        private IdBlock(String sequence, int size) {
+            this.sequence = sequence;
+            this.size = size;
+        }
+
+        private long next() {
+            if (next == end) {
+                next = idSequences.nextBlock(sequence);
+                end = next + size;
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.restservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The id sequences of the catalog tables. Ids are handed out in blocks:
+ * each call to a sequence reserves the next {@code allocationSize} ids from
+ * the value it returns, the way Hibernate's pooled-lo optimizer reads it,
+ * so bulk imports can insert rows without going through Hibernate.
+ */
+@Component
+public class IdSequences {
+    private static final Map<String, String> TABLES = Map.of(
+            "songs_seq", "songs",
+            "users_seq", "users",
+            "playlists_seq", "playlists");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequences(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+    }
+
+    /**
+     * Moves each sequence past the ids already in its table. Tables filled
+     * while ids were identity columns would otherwise get colliding ids.
+     */
+    @PostConstruct
+    public void alignWithExistingIds() {
+        TABLES.forEach((sequence, table) -> {
+            long next = nextBlock(sequence);
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (max != null && next <= max) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + 1));
+            }
+        });
+    }
+
+    /**
+     * Reserves a block of ids and returns the first one.
+     */
+    public long nextBlock(String sequence) {
+        Long first = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (first == null) {
+            throw new IllegalStateException("Sequence " + sequence + " returned no value");
+        }
+        return first;
+    }
+}
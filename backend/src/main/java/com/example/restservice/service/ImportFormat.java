@@ -0,0 +1,39 @@
+package com.example.restservice.service;
+
+import com.example.restservice.exception.BadRequestException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats a bulk import reads: a JSON array, newline-delimited JSON
+ * objects, or CSV with a header row naming the fields.
+ */
+public enum ImportFormat {
+    JSON_ARRAY(MediaType.APPLICATION_JSON),
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static ImportFormat of(String contentType) {
+        if (contentType != null) {
+            try {
+                MediaType type = MediaType.parseMediaType(contentType);
+                for (ImportFormat format : values()) {
+                    if (format.mediaType.includes(type)) {
+                        return format;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // reported below like any other unsupported type
+            }
+        }
+        throw new BadRequestException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.restservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Scans a byte region of a log file on a fork-join pool. The region is cut
+ * into line-aligned chunks and workers only record which byte spans of their
+ * chunk to keep; the caller copies those spans in file order while later
+ * chunks are still being scanned. At most two chunks per worker are in
+ * flight, so memory use does not depend on the size of the region.
+ */
+final class LogChunkScanner {
+    static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    LogChunkScanner(int parallelism) {
+        this.parallelism = parallelism > 0
+                ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+    }
+
+    boolean isWorthSplitting(long length) {
+        return pool != null && length >= 2L * CHUNK_SIZE;
+    }
+
+    /**
+     * Copies the lines of {@code [start, end)} logged in {@code [from, to)}
+     * to {@code out}, exactly as a sequential {@link LogQueryEngine.RangeFilter}
+     * scan would, and returns the number of lines copied.
+     */
+    long copy(Path file, long start, long end, byte[] from, byte[] to, OutputStream out)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long[] bounds = chunkBounds(channel, start, end);
+            int chunks = bounds.length - 1;
+            int window = parallelism * 2;
+            List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(chunks);
+            try {
+                for (int i = 0; i < chunks; i++) {
+                    long chunkStart = bounds[i];
+                    long chunkEnd = bounds[i + 1];
+                    tasks.add(ForkJoinTask.adapt(
+                            () -> scanChunk(channel, chunkStart, chunkEnd, from, to)));
+                }
+                for (int i = 0; i < Math.min(window, chunks); i++) {
+                    pool.execute(tasks.get(i));
+                }
+
+                SpanCopier copier = new SpanCopier(channel, out);
+                boolean inRange = false;
+                long copied = 0;
+                for (int i = 0; i < chunks; i++) {
+                    if (i + window < chunks) {
+                        pool.execute(tasks.get(i + window));
+                    }
+                    Chunk chunk = join(tasks.get(i));
+                    // Continuation lines opening a chunk belong to the previous chunk's entry
+                    if (inRange && chunk.leadingEnd > chunk.start) {
+                        copier.copy(chunk.start, chunk.leadingEnd);
+                        copied += chunk.leadingLines;
+                    }
+                    for (int s = 0; s < chunk.spanCount; s += 2) {
+                        copier.copy(chunk.spans[s], chunk.spans[s + 1]);
+                    }
+                    copied += chunk.copied;
+                    if (chunk.stopped) {
+                        break;
+                    }
+                    if (chunk.sawTimestamp) {
+                        inRange = chunk.endsInRange;
+                    }
+                }
+                copier.finishLine();
+                return copied;
+            } finally {
+                tasks.forEach(task -> task.cancel(false));
+            }
+        }
+    }
+
+    void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits {@code [start, end)} at the first line start at or after every
+     * {@link #CHUNK_SIZE} bytes; {@code start} must itself be a line start.
+     */
+    private static long[] chunkBounds(FileChannel channel, long start, long end)
+            throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+        ByteBuffer buffer = ByteBuffer.allocate(LogLines.BUFFER_SIZE);
+        long next = start + CHUNK_SIZE;
+        while (next < end) {
+            long lineStart = nextLineStart(channel, buffer, next, end);
+            if (lineStart >= end) {
+                break;
+            }
+            bounds.add(lineStart);
+            next = lineStart + CHUNK_SIZE;
+        }
+        bounds.add(end);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long from, long end)
+            throws IOException {
+        long position = from - 1;
+        while (position < end) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return end;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return end;
+    }
+
+    private static Chunk scanChunk(FileChannel channel, long start, long end, byte[] from,
+                                   byte[] to) {
+        Chunk chunk = new Chunk(start, new LogQueryEngine.RangeFilter(from, to));
+        try (InputStream in = new RegionInputStream(channel, start, end)) {
+            LogLines.scan(in, start, chunk, OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.finish(end);
+        return chunk;
+    }
+
+    private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            // The pool may rethrow a copy of the worker's exception that wraps the original
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException unchecked) {
+                    throw unchecked.getCause();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Result of one chunk: the untimestamped lines it opens with, which only
+     * the previous chunk can decide on, and the spans of the lines it keeps.
+     */
+    private static final class Chunk implements LogLines.LineFilter {
+        private final long start;
+        private final LogQueryEngine.RangeFilter filter;
+        private long leadingEnd = -1;
+        private long leadingLines;
+        private long copied;
+        private long[] spans = new long[8];
+        private int spanCount;
+        private long spanStart = -1;
+        private boolean stopped;
+        private boolean sawTimestamp;
+        private boolean endsInRange;
+
+        private Chunk(long start, LogQueryEngine.RangeFilter filter) {
+            this.start = start;
+            this.filter = filter;
+        }
+
+        @Override
+        public LogLines.Decision onLine(long offset, byte[] buffer, int pos, int available) {
+            LogLines.Decision decision = filter.onLine(offset, buffer, pos, available);
+            if (!filter.sawTimestamp()) {
+                leadingLines++;
+                return LogLines.Decision.SKIP;
+            }
+            if (leadingEnd < 0) {
+                leadingEnd = offset;
+            }
+            if (decision == LogLines.Decision.COPY) {
+                if (spanStart < 0) {
+                    spanStart = offset;
+                }
+                copied++;
+            } else {
+                closeSpan(offset);
+                stopped = decision == LogLines.Decision.STOP;
+            }
+            return decision;
+        }
+
+        private void finish(long end) {
+            if (leadingEnd < 0) {
+                leadingEnd = end;
+            }
+            if (!stopped) {
+                closeSpan(end);
+            }
+            sawTimestamp = filter.sawTimestamp();
+            endsInRange = filter.isInRange();
+        }
+
+        private void closeSpan(long end) {
+            if (spanStart < 0) {
+                return;
+            }
+            if (spanCount == spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+            spans[spanCount++] = spanStart;
+            spans[spanCount++] = end;
+            spanStart = -1;
+        }
+    }
+
+    /**
+     * Copies byte spans of the file to the output through one buffer using
+     * positional reads, so it can share the channel with the workers.
+     */
+    private static final class SpanCopier {
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final byte[] buffer = new byte[LogLines.BUFFER_SIZE];
+        private byte last = '\n';
+
+        private SpanCopier(FileChannel channel, OutputStream out) {
+            this.channel = channel;
+            this.out = out;
+        }
+
+        private void copy(long start, long end) throws IOException {
+            long position = start;
+            while (position < end) {
+                int length = (int) Math.min(buffer.length, end - position);
+                int read = channel.read(ByteBuffer.wrap(buffer, 0, length), position);
+                if (read <= 0) {
+                    return;
+                }
+                out.write(buffer, 0, read);
+                last = buffer[read - 1];
+                position += read;
+            }
+        }
+
+        /**
+         * Terminates a last line that had no newline in the file, as the
+         * sequential scan does.
+         */
+        private void finishLine() throws IOException {
+            if (last != '\n') {
+                out.write('\n');
+            }
+        }
+    }
+
+    private static final class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RegionInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int length = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, length), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
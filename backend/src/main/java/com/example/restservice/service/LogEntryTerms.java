@@ -0,0 +1,105 @@
+package com.example.restservice.service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Parses the header the appender writes, {@code yyyy-MM-dd HH:mm:ss LEVEL
+ * logger - message}, and splits text into the terms the search index uses.
+ * Lines written with the older {@code yyyy-MM-dd HH:mm:ss - message} pattern
+ * parse with no level and no logger.
+ */
+final class LogEntryTerms {
+    static final Set<String> LEVELS = Set.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR");
+
+    private static final String LEVEL_PREFIX = "\u0000L";
+    private static final String LOGGER_PREFIX = "\u0000G";
+    private static final String SEPARATOR = " - ";
+    private static final int MIN_TOKEN = 2;
+    private static final int MAX_TOKEN = 64;
+
+    private LogEntryTerms() {
+    }
+
+    static final class Header {
+        final String timestamp;
+        final String level;
+        final String logger;
+        final int messageStart;
+
+        private Header(String timestamp, String level, String logger, int messageStart) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.logger = logger;
+            this.messageStart = messageStart;
+        }
+    }
+
+    /**
+     * Parses the header of a line that starts with a timestamp.
+     */
+    static Header header(String line) {
+        String timestamp = line.substring(0, LogLines.TIMESTAMP_LENGTH);
+        int pos = LogLines.TIMESTAMP_LENGTH;
+        if (line.startsWith(SEPARATOR, pos)) {
+            return new Header(timestamp, null, null, pos + SEPARATOR.length());
+        }
+        int levelStart = skipSpaces(line, pos);
+        int levelEnd = line.indexOf(' ', levelStart);
+        int separator = levelEnd < 0 ? -1 : line.indexOf(SEPARATOR, levelEnd);
+        if (separator < 0 || !LEVELS.contains(line.substring(levelStart, levelEnd))) {
+            return new Header(timestamp, null, null, skipSpaces(line, pos));
+        }
+        String logger = line.substring(skipSpaces(line, levelEnd), separator);
+        return new Header(timestamp, line.substring(levelStart, levelEnd), logger,
+                separator + SEPARATOR.length());
+    }
+
+    static String levelTerm(String level) {
+        return LEVEL_PREFIX + level;
+    }
+
+    static String loggerTerm(String logger) {
+        return LOGGER_PREFIX + logger;
+    }
+
+    static String loggerOf(String term) {
+        return term.startsWith(LOGGER_PREFIX) ? term.substring(LOGGER_PREFIX.length()) : null;
+    }
+
+    /**
+     * Whether a logger name, possibly abbreviated by the pattern, is the
+     * requested one or ends with it as whole name segments.
+     */
+    static boolean loggerMatches(String logger, String requested) {
+        return logger.equals(requested) || logger.endsWith("." + requested);
+    }
+
+    /**
+     * Emits the lower-cased runs of letters and digits of {@code text} from
+     * {@code from}; runs shorter than two or longer than 64 chars are skipped.
+     */
+    static void tokens(String text, int from, Consumer<String> sink) {
+        int start = -1;
+        for (int i = from; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TOKEN && length <= MAX_TOKEN) {
+                    sink.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.restservice.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of filtered log exports. A file is named after the query, a
+ * hash of the generation of the log files it was read from and its format, so
+ * a repeated query is answered from disk until the logs it covers change. Publishing a
+ * file drops older generations of the same query and then the least recently
+ * used files until the directory fits {@code maxBytes}.
+ *
+ * <p>A file handed out within {@code deleteGrace} is never dropped: the
+ * container may open it by path only after the response headers are sent,
+ * so until then the directory may exceed {@code maxBytes}.
+ */
+final class LogExportCache {
+    private static final int HASH_LENGTH = 16;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long deleteGraceMillis;
+
+    LogExportCache(Path directory, long maxBytes, Duration deleteGrace) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.deleteGraceMillis = deleteGrace.toMillis();
+    }
+
+    /**
+     * Returns the cached export of {@code query} at {@code generation} in
+     * {@code format}, or {@code null} if there is none.
+     */
+    Path lookup(String query, String generation, LogFormat format) throws IOException {
+        Path file = directory.resolve(fileName(query, generation, format));
+        try {
+            // The modification time doubles as the last access time for LRU trimming
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates an owner-only temporary file in the cache directory, to be
+     * filled and then handed to {@link #publish}.
+     */
+    Path createTempFile(String query) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "." + query + "-", ".tmp");
+        try {
+            Files.setPosixFilePermissions(tempFile, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Windows не поддерживает POSIX права
+        }
+        return tempFile;
+    }
+
+    Path publish(Path tempFile, String query, String generation, LogFormat format)
+            throws IOException {
+        String name = fileName(query, generation, format);
+        Path file = directory.resolve(name);
+        try {
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        trim(query, format, name);
+        return file;
+    }
+
+    private void trim(String query, LogFormat format, String keep) throws IOException {
+        long handedOutSince = System.currentTimeMillis() - deleteGraceMillis;
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            // Files still being written are hidden and left alone
+            entries.filter(path -> !path.getFileName().toString().startsWith("."))
+                    .forEach(files::add);
+        }
+        long total = 0;
+        List<Path> candidates = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            boolean inGrace = lastAccess(file) > handedOutSince;
+            if (!name.equals(keep) && !inGrace && isGenerationOf(name, query, format)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            total += sizeOf(file);
+            if (!name.equals(keep) && !inGrace) {
+                candidates.add(file);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(LogExportCache::lastAccess));
+        for (Path file : candidates) {
+            if (total <= maxBytes) {
+                return;
+            }
+            total -= sizeOf(file);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean isGenerationOf(String name, String query, LogFormat format) {
+        return name.length() == query.length() + 1 + HASH_LENGTH + format.getExtension().length()
+                && name.startsWith(query + "-") && name.endsWith(format.getExtension());
+    }
+
+    private static String fileName(String query, String generation, LogFormat format) {
+        return query + "-" + hash(generation) + format.getExtension();
+    }
+
+    private static String hash(String generation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(generation.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastAccess(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
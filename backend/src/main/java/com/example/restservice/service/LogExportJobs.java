@@ -0,0 +1,246 @@
+package com.example.restservice.service;
+
+import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs log export jobs on a fixed pool with a bounded queue. A full queue is
+ * rejected with {@link TooManyRequestsException} rather than buffered, requests
+ * for a date that already has a live job get that job's id, and finished jobs
+ * are dropped once the TTL has passed. Result files belong to the export
+ * cache of {@link LogService}: they may outlive the jobs that produced them,
+ * and the cache may also drop them first, when a newer generation of the
+ * same export is published or to stay within its size. A ready job whose
+ * file is gone becomes {@link Status#EXPIRED}, and the next request for its
+ * date starts a new export.
+ */
+@Service
+public class LogExportJobs {
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    public enum Status { PROCESSING, READY, EXPIRED, ERROR, CANCELLED }
+
+    private final LogService logService;
+    private final Duration ttl;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobsByDate = new ConcurrentHashMap<>();
+
+    public LogExportJobs(LogService logService,
+                         @Value("${logs.jobs.workers:2}") int workers,
+                         @Value("${logs.jobs.queue-capacity:16}") int queueCapacity,
+                         @Value("${logs.jobs.ttl:30m}") Duration ttl) {
+        this.logService = logService;
+        this.ttl = ttl;
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("log-export-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(daemonThreads("log-sweep-"));
+        sweeper.scheduleWithFixedDelay(this::evictExpired, SWEEP_INTERVAL.toMillis(),
+                SWEEP_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts an export of the logs of {@code date}, or returns the id of the
+     * job already exporting or holding that date.
+     */
+    public String submit(String date) {
+        String day = LogService.parseDate(date).toString();
+        Job[] created = new Job[1];
+        Job job = jobsByDate.compute(day, (key, existing) -> {
+            if (existing != null && existing.isShareable()) {
+                return existing;
+            }
+            created[0] = new Job(UUID.randomUUID().toString(), key);
+            return created[0];
+        });
+        if (job != created[0]) {
+            return job.id;
+        }
+        jobs.put(job.id, job);
+        try {
+            job.future = workers.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            jobsByDate.remove(day, job);
+            throw new TooManyRequestsException("Too many log exports in progress, retry later");
+        }
+        return job.id;
+    }
+
+    public String getStatus(String fileId) {
+        Job job = jobs.get(fileId);
+        if (job == null) {
+            return NOT_FOUND;
+        }
+        job.expireIfGone();
+        return job.status.name();
+    }
+
+    public Path getFile(String fileId) {
+        return readyFile(fileId, jobs.get(fileId));
+    }
+
+    /**
+     * Returns the result of a finished job in {@code format}. Other formats
+     * come from the export cache, so each is encoded at most once per
+     * generation of the logs.
+     */
+    public Path getFile(String fileId, LogFormat format) throws IOException {
+        Job job = jobs.get(fileId);
+        Path file = readyFile(fileId, job);
+        if (format == LogFormat.PLAIN) {
+            return file;
+        }
+        return logService.createFilteredLogFile(job.date, format).toPath();
+    }
+
+    /**
+     * Stops a running job, or forgets the result of a finished one.
+     */
+    public void cancel(String fileId) {
+        Job job = jobs.get(fileId);
+        if (job == null) {
+            throw new NotFoundException("Job not found for ID: " + fileId);
+        }
+        jobsByDate.remove(job.date, job);
+        job.cancel();
+    }
+
+    /**
+     * Drops jobs that finished longer than the TTL ago.
+     */
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> {
+            if (!job.finishedBefore(cutoff)) {
+                return false;
+            }
+            jobsByDate.remove(job.date, job);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        workers.shutdownNow();
+        jobs.clear();
+        jobsByDate.clear();
+    }
+
+    private static Path readyFile(String fileId, Job job) {
+        Path file = job == null || job.expireIfGone() ? null : job.file;
+        if (file == null) {
+            throw new NotFoundException("File not found for ID: " + fileId);
+        }
+        return file;
+    }
+
+    private void run(Job job) {
+        if (job.status != Status.PROCESSING) {
+            return;
+        }
+        try {
+            File file = logService.createFilteredLogFile(job.date);
+            job.finish(file.toPath());
+        } catch (Exception e) {
+            jobsByDate.remove(job.date, job);
+            job.fail();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Job {
+        private final String id;
+        private final String date;
+        private volatile Status status = Status.PROCESSING;
+        private volatile Future<?> future;
+        private volatile Path file;
+        private volatile Instant finishedAt;
+
+        private Job(String id, String date) {
+            this.id = id;
+            this.date = date;
+        }
+
+        private boolean isShareable() {
+            return status == Status.PROCESSING || !expireIfGone() && status == Status.READY;
+        }
+
+        /**
+         * Marks a ready job expired once the export cache has dropped its
+         * file; returns whether the job has no file to serve.
+         */
+        private synchronized boolean expireIfGone() {
+            if (status == Status.READY && !Files.exists(file)) {
+                status = Status.EXPIRED;
+                file = null;
+            }
+            return file == null;
+        }
+
+        private boolean finishedBefore(Instant cutoff) {
+            return finishedAt != null && !finishedAt.isAfter(cutoff);
+        }
+
+        private synchronized void finish(Path result) {
+            if (status == Status.PROCESSING) {
+                file = result;
+                status = Status.READY;
+                finishedAt = Instant.now();
+            }
+        }
+
+        private synchronized void fail() {
+            if (status == Status.PROCESSING) {
+                status = Status.ERROR;
+                finishedAt = Instant.now();
+            }
+        }
+
+        private synchronized void cancel() {
+            if (status == Status.PROCESSING || status == Status.READY) {
+                status = Status.CANCELLED;
+                finishedAt = Instant.now();
+            }
+            Future<?> running = future;
+            if (running != null) {
+                running.cancel(true);
+            }
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.restservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sparse timestamp-to-offset index of one log file: roughly one entry per
+ * {@link #STRIDE} bytes, each pointing at the start of a timestamped line.
+ * Only bytes appended since the last call are indexed, and the index starts
+ * over when the file is replaced or truncated.
+ */
+final class LogFileIndex {
+    static final int STRIDE = 256 * 1024;
+
+    private final Path file;
+    private final NavigableMap<String, Long> offsets = new TreeMap<>();
+    private Object fileKey;
+    private long indexedUpTo; // start of the last line seen, where indexing resumes
+    private long nextEntryAt;
+    private long size;
+    private String lastTimestamp;
+
+    LogFileIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns an offset at or before the first line logged at or after
+     * {@code from}; scanning from there cannot miss a matching line.
+     */
+    synchronized long seek(String from) throws IOException {
+        refresh();
+        Map.Entry<String, Long> entry = offsets.lowerEntry(from);
+        return entry == null ? 0 : entry.getValue();
+    }
+
+    /**
+     * Returns an offset past which no line logged before {@code to} starts:
+     * the first indexed line at or after {@code to}, or the end of the file.
+     */
+    synchronized long seekPast(String to) throws IOException {
+        refresh();
+        Map.Entry<String, Long> entry = offsets.ceilingEntry(to);
+        return entry == null ? size : entry.getValue();
+    }
+
+    /**
+     * Identifies the bytes a query ending at {@code to} reads from this file.
+     * Lines are appended in time order, so once the file holds a line at or
+     * past {@code to} later appends cannot change the result and only the
+     * file's identity matters.
+     */
+    synchronized String generation(String to) throws IOException {
+        refresh();
+        String name = file.getFileName() + ":" + fileKey;
+        return lastTimestamp != null && lastTimestamp.compareTo(to) >= 0
+                ? name + ":sealed" : name + ":" + size;
+    }
+
+    private void refresh() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Object key = attributes.fileKey() != null
+                ? attributes.fileKey() : attributes.creationTime();
+        if (!key.equals(fileKey) || attributes.size() < indexedUpTo) {
+            offsets.clear();
+            fileKey = key;
+            indexedUpTo = 0;
+            nextEntryAt = 0;
+            lastTimestamp = null;
+        }
+        size = attributes.size();
+        if (size == indexedUpTo) {
+            return;
+        }
+        // Only lines near the end can hold the newest timestamp
+        long tail = size - LogLines.BUFFER_SIZE;
+        try (FileChannel channel = FileChannel.open(file);
+             InputStream in = Channels.newInputStream(channel.position(indexedUpTo))) {
+            LogLines.scan(in, indexedUpTo, (offset, buffer, pos, available) -> {
+                indexedUpTo = offset;
+                if (offset >= nextEntryAt || offset >= tail) {
+                    String timestamp = LogLines.timestamp(buffer, pos, available);
+                    if (timestamp != null) {
+                        lastTimestamp = timestamp;
+                        if (offset >= nextEntryAt) {
+                            offsets.putIfAbsent(timestamp, offset);
+                            nextEntryAt = offset + STRIDE;
+                        }
+                    }
+                }
+                return LogLines.Decision.SKIP;
+            }, OutputStream.nullOutputStream());
+        }
+    }
+}
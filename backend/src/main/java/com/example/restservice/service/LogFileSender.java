@@ -0,0 +1,191 @@
+package com.example.restservice.service;
+
+import com.example.restservice.exception.BadRequestException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends an exported log file with single-range support so interrupted
+ * downloads can resume. Large bodies are handed to the container's sendfile
+ * when it offers one, otherwise they are copied with
+ * {@link FileChannel#transferTo} without passing through a heap buffer of ours.
+ * Export files are named after their content, so the name is a strong ETag.
+ * Gzip exports go out either as {@code Content-Encoding: gzip} when the
+ * client accepts it, or as a {@code .log.gz} attachment when asked for with
+ * {@code format=gz}; ranges then count bytes of the compressed file.
+ */
+@Component
+public class LogFileSender {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Tomcat's own threshold: below it a plain write is cheaper than sendfile
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    private static final String GZIP_MEDIA_TYPE = "application/gzip";
+
+    /**
+     * How an export reaches the client.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Delivery {
+        PLAIN(LogFormat.PLAIN),
+        GZIP_ENCODED(LogFormat.GZIP),
+        GZIP_FILE(LogFormat.GZIP);
+
+        private final LogFormat format;
+    }
+
+    /**
+     * Picks the delivery for an explicit {@code format} request parameter,
+     * falling back to the request's {@code Accept-Encoding}.
+     */
+    public Delivery negotiate(String format, HttpServletRequest request) {
+        if (format == null) {
+            return acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                    ? Delivery.GZIP_ENCODED : Delivery.PLAIN;
+        }
+        return switch (format) {
+            case "gz", "gzip" -> Delivery.GZIP_FILE;
+            case "log", "text" -> Delivery.PLAIN;
+            default -> throw new BadRequestException("Unsupported format: " + format
+                    + ", expected log or gz");
+        };
+    }
+
+    public void send(Path file, String baseName, Delivery delivery, HttpServletRequest request,
+                     HttpServletResponse response) throws IOException {
+        // Opened before anything is committed, so an export removed meanwhile fails the
+        // request cleanly instead of cutting a response short
+        try (FileChannel channel = FileChannel.open(file)) {
+            send(channel, file, baseName, delivery, request, response);
+        }
+    }
+
+    private void send(FileChannel channel, Path file, String baseName, Delivery delivery,
+                      HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = channel.size();
+        String etag = "\"" + file.getFileName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        if (delivery == Delivery.GZIP_FILE) {
+            response.setContentType(GZIP_MEDIA_TYPE);
+        } else {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        }
+        if (delivery == Delivery.GZIP_ENCODED) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        String filename = baseName + (delivery == Delivery.GZIP_FILE
+                ? LogFormat.GZIP.getExtension() : LogFormat.PLAIN.getExtension());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + filename + "\"");
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (!isSatisfiable(range, length)) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count <= 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The container reopens the file by path; LogExportCache keeps it for a grace period
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        while (position <= end) {
+            long sent = channel.transferTo(position, end + 1 - position, out);
+            if (sent <= 0) {
+                break;
+            }
+            position += sent;
+        }
+    }
+
+    /**
+     * Returns the single range to serve, or {@code null} to serve the whole
+     * file: when there is no Range header, it cannot be parsed, it asks for
+     * several ranges, or an If-Range names a different version of the file.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("x-gzip")) {
+                continue;
+            }
+            String quality = parts.length > 1 ? parts[1].trim() : "q=1";
+            return !quality.matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return length > 0 && range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
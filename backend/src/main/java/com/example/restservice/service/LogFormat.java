@@ -0,0 +1,24 @@
+package com.example.restservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * On-disk encoding of a log export. Compressed exports are deflated while
+ * the filter writes them, so no uncompressed copy is ever stored.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum LogFormat {
+    PLAIN(".log"),
+    GZIP(".log.gz");
+
+    private final String extension;
+
+    OutputStream encode(OutputStream out) throws IOException {
+        return this == GZIP ? new GZIPOutputStream(out, LogLines.BUFFER_SIZE) : out;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.restservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class LogLines {
+    static final int BUFFER_SIZE = 64 * 1024;
+    /** Length of the {@code yyyy-MM-dd HH:mm:ss} prefix the appender writes. */
+    static final int TIMESTAMP_LENGTH = 19;
+
+    enum Decision { COPY, SKIP, STOP }
+
+    interface LineFilter {
+        /**
+         * Decides what happens to the line that starts at {@code buffer[pos]},
+         * {@code offset} bytes into the file. At least {@link #TIMESTAMP_LENGTH}
+         * bytes are available unless the line is shorter than that.
+         */
+        Decision onLine(long offset, byte[] buffer, int pos, int available);
+    }
+
+    private LogLines() {
+    }
+
+    /**
+     * Walks the lines of {@code in}, which must be positioned at a line start
+     * {@code startOffset} bytes into the file, and copies the ones the filter
+     * accepts to {@code out}. Works on raw bytes through one fixed buffer, so
+     * memory use depends on neither file nor line length. Returns the number
+     * of lines copied.
+     */
+    static long scan(InputStream in, long startOffset, LineFilter filter, OutputStream out)
+            throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bufferOffset = startOffset; // file offset of buffer[0]
+        int pos = 0;
+        int end = 0;
+        boolean eof = false;
+        boolean lineStart = true;
+        boolean copying = false;
+        long copied = 0;
+        while (true) {
+            while (pos < end) {
+                if (lineStart) {
+                    if (end - pos < TIMESTAMP_LENGTH && !eof) {
+                        break; // not enough bytes yet to decide on this line
+                    }
+                    Decision decision = filter.onLine(bufferOffset + pos, buffer, pos, end - pos);
+                    if (decision == Decision.STOP) {
+                        return copied;
+                    }
+                    copying = decision == Decision.COPY;
+                    if (copying) {
+                        copied++;
+                    }
+                    lineStart = false;
+                }
+                int newline = indexOf(buffer, pos, end, (byte) '\n');
+                int stop = newline < 0 ? end : newline + 1;
+                if (copying) {
+                    out.write(buffer, pos, stop - pos);
+                }
+                pos = stop;
+                lineStart = newline >= 0;
+            }
+            if (eof) {
+                if (copying && !lineStart) {
+                    out.write('\n');
+                }
+                return copied;
+            }
+            int remaining = end - pos;
+            System.arraycopy(buffer, pos, buffer, 0, remaining);
+            bufferOffset += pos;
+            pos = 0;
+            end = remaining;
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        }
+    }
+
+    /**
+     * Returns the line's timestamp, or {@code null} for lines that do not start
+     * with one, such as stack trace frames.
+     */
+    static String timestamp(byte[] buffer, int pos, int available) {
+        if (!hasTimestamp(buffer, pos, available)) {
+            return null;
+        }
+        // Only ASCII digits and separators here, so Latin-1 decoding is exact
+        return new String(buffer, pos, TIMESTAMP_LENGTH, StandardCharsets.ISO_8859_1);
+    }
+
+    static boolean hasTimestamp(byte[] buffer, int pos, int available) {
+        if (available < TIMESTAMP_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            byte b = buffer[pos + i];
+            boolean valid = switch (i) {
+                case 4, 7 -> b == '-';
+                case 10 -> b == ' ';
+                case 13, 16 -> b == ':';
+                default -> b >= '0' && b <= '9';
+            };
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the timestamp at {@code buffer[pos]}, which must pass
+     * {@link #hasTimestamp}, with one encoded by {@link #timestampKey},
+     * without decoding the line.
+     */
+    static int compareTimestamp(byte[] buffer, int pos, byte[] key) {
+        return Arrays.compare(buffer, pos, pos + TIMESTAMP_LENGTH, key, 0, TIMESTAMP_LENGTH);
+    }
+
+    static byte[] timestampKey(String timestamp) {
+        return timestamp.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static int indexOf(byte[] buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.restservice.service;
+
+import com.example.restservice.model.LogSearchResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Answers time-range queries over the active log and the daily files logback
+ * rolls it into ({@code app.log} becomes {@code app.yyyy-MM-dd.log}). Only the
+ * rolled files whose day overlaps the range are opened, and each file is
+ * entered at the offset its sparse index gives for the start of the range.
+ * Regions large enough to be worth it are scanned in parallel chunks.
+ */
+final class LogQueryEngine {
+    static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path activeFile;
+    private final Pattern rolledName;
+    private final Map<Path, LogFileIndex> indexes = new ConcurrentHashMap<>();
+    private final LogChunkScanner chunkScanner;
+    private final LogSearcher searcher;
+
+    LogQueryEngine(Path activeFile, int parallelism, Path searchIndexDirectory,
+                   long searchIndexCacheBytes) {
+        this.activeFile = activeFile;
+        this.chunkScanner = new LogChunkScanner(parallelism);
+        this.searcher = new LogSearcher(searchIndexDirectory, searchIndexCacheBytes);
+        String name = activeFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        this.rolledName = Pattern.compile(Pattern.quote(base) + "\\.(\\d{4}-\\d{2}-\\d{2})"
+                + Pattern.quote(extension));
+    }
+
+    boolean hasLogs() throws IOException {
+        return Files.exists(activeFile) || !rolledFiles(LocalDate.MIN, LocalDate.MAX).isEmpty();
+    }
+
+    /**
+     * Writes every line logged in {@code [from, to)}, including continuation
+     * lines such as stack traces, and returns how many lines were written.
+     */
+    long copyRange(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        String fromKey = from.format(TIMESTAMP_FORMAT);
+        String toKey = to.format(TIMESTAMP_FORMAT);
+        byte[] fromBytes = LogLines.timestampKey(fromKey);
+        byte[] toBytes = LogLines.timestampKey(toKey);
+        long copied = 0;
+        for (Path file : sourceFiles(from, to)) {
+            LogFileIndex index = index(file);
+            long start = index.seek(fromKey);
+            long end = index.seekPast(toKey);
+            if (chunkScanner.isWorthSplitting(end - start)) {
+                copied += chunkScanner.copy(file, start, end, fromBytes, toBytes, out);
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file);
+                 InputStream in = Channels.newInputStream(channel.position(start))) {
+                copied += LogLines.scan(in, start, new RangeFilter(fromBytes, toBytes), out);
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Returns up to {@code limit} entries matching {@code criteria}, oldest
+     * first, reading only the blocks the search indexes point to.
+     */
+    LogSearchResult search(LocalDateTime from, LocalDateTime to, LogSearchCriteria criteria,
+                           int limit) throws IOException {
+        return searcher.search(sourceFiles(from, to), activeFile, criteria, limit);
+    }
+
+    void close() {
+        chunkScanner.close();
+    }
+
+    /**
+     * Returns a string that changes whenever the result of
+     * {@link #copyRange} for the same range could change.
+     */
+    String generation(LocalDateTime from, LocalDateTime to) throws IOException {
+        String toKey = to.format(TIMESTAMP_FORMAT);
+        StringBuilder generation = new StringBuilder();
+        for (Path file : sourceFiles(from, to)) {
+            generation.append(index(file).generation(toKey)).append('|');
+        }
+        return generation.toString();
+    }
+
+    private List<Path> sourceFiles(LocalDateTime from, LocalDateTime to) throws IOException {
+        List<Path> files = rolledFiles(from.toLocalDate(), to.toLocalDate());
+        if (Files.exists(activeFile)) {
+            files.add(activeFile);
+        }
+        indexes.keySet().removeIf(path -> !Files.exists(path));
+        return files;
+    }
+
+    private LogFileIndex index(Path file) {
+        return indexes.computeIfAbsent(file, LogFileIndex::new);
+    }
+
+    private List<Path> rolledFiles(LocalDate first, LocalDate last) throws IOException {
+        Path directory = activeFile.toAbsolutePath().getParent();
+        List<Path> files = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.forEach(path -> {
+                LocalDate day = rolledDay(path);
+                if (day != null && !day.isBefore(first) && !day.isAfter(last)) {
+                    files.add(path);
+                }
+            });
+        }
+        files.sort(Comparator.comparing(this::rolledDay));
+        return files;
+    }
+
+    private LocalDate rolledDay(Path path) {
+        Matcher matcher = rolledName.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(matcher.group(1));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Keeps lines in range along with their untimestamped continuation lines.
+     * Log lines are written in time order, so the first line at or past the
+     * end of the range ends the scan. Timestamps are compared as raw bytes.
+     */
+    static final class RangeFilter implements LogLines.LineFilter {
+        private final byte[] from;
+        private final byte[] to;
+        private boolean inRange;
+        private boolean sawTimestamp;
+
+        RangeFilter(byte[] from, byte[] to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public LogLines.Decision onLine(long offset, byte[] buffer, int pos, int available) {
+            if (LogLines.hasTimestamp(buffer, pos, available)) {
+                sawTimestamp = true;
+                if (LogLines.compareTimestamp(buffer, pos, to) >= 0) {
+                    return LogLines.Decision.STOP;
+                }
+                inRange = LogLines.compareTimestamp(buffer, pos, from) >= 0;
+            }
+            return inRange ? LogLines.Decision.COPY : LogLines.Decision.SKIP;
+        }
+
+        boolean isInRange() {
+            return inRange;
+        }
+
+        boolean sawTimestamp() {
+            return sawTimestamp;
+        }
+    }
+}
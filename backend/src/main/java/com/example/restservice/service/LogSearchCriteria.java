@@ -0,0 +1,92 @@
+package com.example.restservice.service;
+
+import com.example.restservice.model.LogSearchQuery;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * A {@link LogSearchQuery} normalised for matching: timestamps as sortable
+ * strings, the level upper-cased and the terms split into index tokens.
+ */
+@Getter
+final class LogSearchCriteria {
+    private final String fromKey;
+    private final String toKey;
+    private final String level;
+    private final String logger;
+    private final List<String> tokens;
+    private final String contains;
+    /** Tokens every matching entry holds as whole words, for narrowing by the index. */
+    private final List<String> indexTokens;
+
+    LogSearchCriteria(LogSearchQuery query) {
+        this.fromKey = query.getFrom().format(LogQueryEngine.TIMESTAMP_FORMAT);
+        this.toKey = query.getTo().format(LogQueryEngine.TIMESTAMP_FORMAT);
+        this.level = isBlank(query.getLevel())
+                ? null : query.getLevel().trim().toUpperCase(Locale.ROOT);
+        this.logger = isBlank(query.getLogger()) ? null : query.getLogger().trim();
+        Set<String> terms = new LinkedHashSet<>();
+        if (!isBlank(query.getTerms())) {
+            LogEntryTerms.tokens(query.getTerms(), 0, terms::add);
+        }
+        this.tokens = new ArrayList<>(terms);
+        this.contains = isBlank(query.getContains())
+                ? null : query.getContains().toLowerCase(Locale.ROOT);
+        if (contains != null) {
+            terms.addAll(wholeWords(query.getContains()));
+        }
+        this.indexTokens = new ArrayList<>(terms);
+    }
+
+    /**
+     * The tokens of {@code text} that a match of it as a substring holds as
+     * whole words: a run touching either end may be part of a longer word.
+     */
+    private static List<String> wholeWords(String text) {
+        int from = 0;
+        while (from < text.length() && Character.isLetterOrDigit(text.charAt(from))) {
+            from++;
+        }
+        int to = text.length();
+        while (to > from && Character.isLetterOrDigit(text.charAt(to - 1))) {
+            to--;
+        }
+        List<String> words = new ArrayList<>();
+        LogEntryTerms.tokens(text.substring(0, to), from, words::add);
+        return words;
+    }
+
+    /**
+     * Checks an entry against every criterion; {@code text} is the whole
+     * entry, header and continuation lines included.
+     */
+    boolean matches(LogEntryTerms.Header header, String text) {
+        if (header.timestamp.compareTo(fromKey) < 0 || header.timestamp.compareTo(toKey) >= 0) {
+            return false;
+        }
+        if (level != null && !level.equals(header.level)) {
+            return false;
+        }
+        if (logger != null
+                && (header.logger == null || !LogEntryTerms.loggerMatches(header.logger, logger))) {
+            return false;
+        }
+        if (!tokens.isEmpty()) {
+            Set<String> entryTokens = new HashSet<>();
+            LogEntryTerms.tokens(text, header.messageStart, entryTokens::add);
+            if (!entryTokens.containsAll(tokens)) {
+                return false;
+            }
+        }
+        return contains == null || text.toLowerCase(Locale.ROOT).contains(contains);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
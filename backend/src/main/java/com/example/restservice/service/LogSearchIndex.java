@@ -0,0 +1,429 @@
+package com.example.restservice.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index of one log file. The file is cut into blocks of about
+ * {@link #BLOCK_SIZE} bytes at entry boundaries, and every term of a block
+ * (the word tokens of its lines, headers included, plus the level and logger
+ * of each entry) maps to the ids of the blocks that contain it, so a search
+ * only reads candidate blocks.
+ * Closed blocks are appended to an index file as they are built: the index
+ * survives restarts and only bytes appended since are tokenized. The active
+ * file's last, still growing block is left open and always searched.
+ */
+final class LogSearchIndex {
+    static final int BLOCK_SIZE = 256 * 1024;
+    /** Longer lines are indexed by their head and mark their block as unindexable. */
+    static final int MAX_INDEXED_LINE = 16 * 1024;
+
+    private static final int MAGIC = 0x4c534958;
+    private static final int VERSION = 2; // 2 indexes the words of the header too
+    // Rough heap cost of a term's string, map entry and posting list, and of a block
+    private static final int TERM_BYTES = 96;
+    private static final int BLOCK_BYTES = 96;
+
+    private final Path file;
+    private final Path indexFile;
+    private final boolean sealed; // rolled files never grow, so their last block is closed
+    private final List<Block> blocks = new ArrayList<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final Set<String> loggers = new HashSet<>();
+    private final BitSet truncatedBlocks = new BitSet();
+    private String fileKey;
+    private long indexedUpTo; // end of the last closed block
+    private long weight;
+    private boolean loaded;
+
+    LogSearchIndex(Path file, Path indexFile, boolean sealed) {
+        this.file = file;
+        this.indexFile = indexFile;
+        this.sealed = sealed;
+    }
+
+    /**
+     * Brings the index up to date and returns the byte regions that may hold
+     * entries matching {@code criteria}, in file order.
+     */
+    synchronized Candidates candidates(LogSearchCriteria criteria) throws IOException {
+        long size = refresh();
+        BitSet hits = new BitSet(blocks.size());
+        for (int id = 0; id < blocks.size(); id++) {
+            if (blocks.get(id).overlaps(criteria.getFromKey(), criteria.getToKey())) {
+                hits.set(id);
+            }
+        }
+        if (criteria.getLevel() != null) {
+            hits.and(postingBits(LogEntryTerms.levelTerm(criteria.getLevel())));
+        }
+        if (criteria.getLogger() != null) {
+            BitSet anyLogger = new BitSet(blocks.size());
+            for (String logger : loggers) {
+                if (LogEntryTerms.loggerMatches(logger, criteria.getLogger())) {
+                    anyLogger.or(postingBits(LogEntryTerms.loggerTerm(logger)));
+                }
+            }
+            hits.and(anyLogger);
+        }
+        for (String token : criteria.getIndexTokens()) {
+            BitSet withToken = postingBits(token);
+            withToken.or(truncatedBlocks);
+            hits.and(withToken);
+        }
+
+        List<long[]> regions = new ArrayList<>();
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) {
+            regions.add(new long[] {blocks.get(id).start, blocks.get(id).end});
+        }
+        int total = blocks.size();
+        if (size > indexedUpTo) {
+            regions.add(new long[] {indexedUpTo, size});
+            total++;
+        }
+        return new Candidates(regions, total);
+    }
+
+    private BitSet postingBits(String term) {
+        BitSet bits = new BitSet(blocks.size());
+        IntList ids = postings.get(term);
+        if (ids != null) {
+            for (int i = 0; i < ids.size; i++) {
+                bits.set(ids.values[i]);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Estimated heap held by the loaded index, in bytes.
+     */
+    synchronized int weight() {
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    /**
+     * Loads the index file and indexes what the log gained since it was
+     * written; returns the size of the log.
+     */
+    synchronized long refresh() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = String.valueOf(attributes.fileKey() != null
+                ? attributes.fileKey() : attributes.creationTime());
+        if (!loaded) {
+            loaded = true;
+            load(key);
+        }
+        if (!key.equals(fileKey) || attributes.size() < indexedUpTo) {
+            reset(key);
+        }
+        if (attributes.size() > indexedUpTo) {
+            index();
+        }
+        return attributes.size();
+    }
+
+    private void reset(String key) throws IOException {
+        blocks.clear();
+        postings.clear();
+        loggers.clear();
+        truncatedBlocks.clear();
+        fileKey = key;
+        indexedUpTo = 0;
+        weight = 0;
+        Files.createDirectories(indexFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(indexFile))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+        }
+    }
+
+    private void load(String key) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        boolean torn = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                return; // another file or format, reset() overwrites it
+            }
+            fileKey = key;
+            while (true) {
+                in.mark(1);
+                if (in.read() < 0) {
+                    break;
+                }
+                in.reset();
+                try {
+                    Block block = Block.read(in);
+                    String[] terms = new String[in.readInt()];
+                    for (int i = 0; i < terms.length; i++) {
+                        terms[i] = in.readUTF();
+                    }
+                    addBlock(block, Arrays.asList(terms));
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            return; // torn header, reset() overwrites it
+        }
+        if (torn) {
+            // A record cut short by a crash is dropped and its bytes indexed again
+            rewrite(key);
+        }
+    }
+
+    /**
+     * Rewrites the index file from memory, dropping any torn trailing record.
+     */
+    private void rewrite(String key) throws IOException {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            Map<Integer, List<String>> termsByBlock = new HashMap<>();
+            postings.forEach((term, ids) -> {
+                for (int i = 0; i < ids.size; i++) {
+                    termsByBlock.computeIfAbsent(ids.values[i], id -> new ArrayList<>()).add(term);
+                }
+            });
+            for (int id = 0; id < blocks.size(); id++) {
+                writeBlock(out, blocks.get(id), termsByBlock.getOrDefault(id, List.of()));
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void index() throws IOException {
+        try (FileChannel channel = FileChannel.open(file);
+             InputStream in = Channels.newInputStream(channel.position(indexedUpTo));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(indexFile, StandardOpenOption.APPEND)))) {
+            LineReader lines = new LineReader(in, indexedUpTo);
+            BlockBuilder block = new BlockBuilder(indexedUpTo);
+            while (lines.next(sealed)) {
+                boolean timestamped = LogLines.hasTimestamp(lines.bytes, 0, lines.length);
+                if (timestamped && lines.offset - block.start >= BLOCK_SIZE) {
+                    closeBlock(block, lines.offset, out);
+                    block = new BlockBuilder(lines.offset);
+                }
+                block.add(lines, timestamped);
+            }
+            if (sealed && lines.end > block.start) {
+                closeBlock(block, lines.end, out);
+            }
+        }
+    }
+
+    private void closeBlock(BlockBuilder builder, long end, DataOutputStream out)
+            throws IOException {
+        Block block = new Block(builder.start, end, builder.minTimestamp, builder.maxTimestamp,
+                builder.truncated);
+        writeBlock(out, block, builder.terms);
+        addBlock(block, builder.terms);
+    }
+
+    private void addBlock(Block block, Iterable<String> terms) {
+        int id = blocks.size();
+        blocks.add(block);
+        weight += BLOCK_BYTES;
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> {
+                weight += TERM_BYTES + 2L * t.length();
+                return new IntList();
+            }).add(id);
+            weight += Integer.BYTES;
+            String logger = LogEntryTerms.loggerOf(term);
+            if (logger != null) {
+                loggers.add(logger);
+            }
+        }
+        if (block.truncated) {
+            truncatedBlocks.set(id);
+        }
+        indexedUpTo = block.end;
+    }
+
+    private static void writeBlock(DataOutputStream out, Block block, Iterable<String> terms)
+            throws IOException {
+        block.write(out);
+        List<String> list = new ArrayList<>();
+        terms.forEach(list::add);
+        out.writeInt(list.size());
+        for (String term : list) {
+            out.writeUTF(term);
+        }
+    }
+
+    static final class Candidates {
+        final List<long[]> regions;
+        final int totalBlocks;
+
+        private Candidates(List<long[]> regions, int totalBlocks) {
+            this.regions = regions;
+            this.totalBlocks = totalBlocks;
+        }
+    }
+
+    private static final class Block {
+        private final long start;
+        private final long end;
+        private final String minTimestamp; // empty when the block holds no timestamped line
+        private final String maxTimestamp;
+        private final boolean truncated;
+
+        private Block(long start, long end, String minTimestamp, String maxTimestamp,
+                      boolean truncated) {
+            this.start = start;
+            this.end = end;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.truncated = truncated;
+        }
+
+        private boolean overlaps(String from, String to) {
+            return minTimestamp.isEmpty()
+                    || maxTimestamp.compareTo(from) >= 0 && minTimestamp.compareTo(to) < 0;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(start);
+            out.writeLong(end);
+            out.writeUTF(minTimestamp);
+            out.writeUTF(maxTimestamp);
+            out.writeBoolean(truncated);
+        }
+
+        private static Block read(DataInputStream in) throws IOException {
+            return new Block(in.readLong(), in.readLong(), in.readUTF(), in.readUTF(),
+                    in.readBoolean());
+        }
+    }
+
+    private static final class BlockBuilder {
+        private final long start;
+        private final Set<String> terms = new HashSet<>();
+        private String minTimestamp = "";
+        private String maxTimestamp = "";
+        private boolean truncated;
+
+        private BlockBuilder(long start) {
+            this.start = start;
+        }
+
+        private void add(LineReader line, boolean timestamped) {
+            String text = new String(line.bytes, 0, line.length, StandardCharsets.UTF_8);
+            if (timestamped) {
+                LogEntryTerms.Header header = LogEntryTerms.header(text);
+                if (minTimestamp.isEmpty()) {
+                    minTimestamp = header.timestamp;
+                }
+                maxTimestamp = header.timestamp;
+                if (header.level != null) {
+                    terms.add(LogEntryTerms.levelTerm(header.level));
+                    terms.add(LogEntryTerms.loggerTerm(header.logger));
+                }
+            }
+            // Headers are tokenized too, so any whole word of an entry narrows a substring search
+            LogEntryTerms.tokens(text, 0, terms::add);
+            truncated |= line.truncated;
+        }
+    }
+
+    /**
+     * Reads lines through a fixed buffer, keeping at most
+     * {@link #MAX_INDEXED_LINE} bytes of each.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[LogLines.BUFFER_SIZE];
+        private final byte[] bytes = new byte[MAX_INDEXED_LINE];
+        private int pos;
+        private int limit;
+        private long bufferOffset;
+        private long offset; // start of the current line
+        private long end; // end of the last line returned
+        private int length;
+        private boolean truncated;
+
+        private LineReader(InputStream in, long start) {
+            this.in = in;
+            this.bufferOffset = start;
+            this.end = start;
+        }
+
+        /**
+         * Advances to the next line; a last line without a newline is only
+         * returned when {@code acceptUnterminated} is set.
+         */
+        private boolean next(boolean acceptUnterminated) throws IOException {
+            offset = end;
+            length = 0;
+            truncated = false;
+            while (true) {
+                if (pos == limit) {
+                    bufferOffset += limit;
+                    pos = 0;
+                    limit = Math.max(0, in.read(buffer));
+                    if (limit == 0) {
+                        long consumed = bufferOffset - offset;
+                        if (consumed > 0 && acceptUnterminated) {
+                            end = bufferOffset;
+                            return true;
+                        }
+                        return false;
+                    }
+                }
+                byte b = buffer[pos++];
+                if (b == '\n') {
+                    end = bufferOffset + pos;
+                    return true;
+                }
+                if (length < bytes.length) {
+                    bytes[length++] = b;
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
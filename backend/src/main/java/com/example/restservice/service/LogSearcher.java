@@ -0,0 +1,181 @@
+package com.example.restservice.service;
+
+import com.example.restservice.model.LogEntry;
+import com.example.restservice.model.LogSearchResult;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs searches over a set of log files: each file's {@link LogSearchIndex}
+ * narrows the search to candidate blocks, which are then read and checked
+ * entry by entry. The active file's index stays in memory; indexes of rolled
+ * files are kept by a cache bounded by their estimated heap, with room for
+ * every file logback retains, and reloaded from their index files on a miss.
+ *
+ * <p>Only whole words narrow the blocks read: a {@code contains} substring
+ * narrows by the words inside it, and one with no whole word, such as a
+ * fragment of a single word, reads every block in the time range.
+ */
+final class LogSearcher {
+    private static final String INDEX_EXTENSION = ".idx";
+    // logback-spring.xml keeps 30 rolled files
+    private static final int MAX_OPEN_INDEXES = 30;
+
+    private final Path indexDirectory;
+    private final CacheStore<Path, LogSearchIndex> openIndexes;
+    private LogSearchIndex activeIndex;
+
+    LogSearcher(Path indexDirectory, long maxIndexBytes) {
+        this.indexDirectory = indexDirectory;
+        this.openIndexes = new SegmentedLruCache<>(MAX_OPEN_INDEXES, maxIndexBytes,
+                Duration.ZERO, LogSearchIndex::weight);
+    }
+
+    /**
+     * Searches {@code files}, oldest first; {@code activeFile} is the one
+     * still being appended to.
+     */
+    LogSearchResult search(List<Path> files, Path activeFile, LogSearchCriteria criteria,
+                           int limit) throws IOException {
+        deleteOrphanedIndexes(activeFile.toAbsolutePath().getParent());
+        List<LogEntry> entries = new ArrayList<>();
+        long scanned = 0;
+        long total = 0;
+        for (Path file : files) {
+            LogSearchIndex index = file.equals(activeFile)
+                    ? activeIndex(file.toAbsolutePath()) : rolledIndex(file.toAbsolutePath());
+            LogSearchIndex.Candidates candidates = index.candidates(criteria);
+            total += candidates.totalBlocks;
+            try (FileChannel channel = FileChannel.open(file)) {
+                for (long[] region : candidates.regions) {
+                    if (entries.size() > limit) {
+                        break;
+                    }
+                    scanned++;
+                    collect(read(channel, region[0], region[1]), criteria, entries, limit + 1);
+                }
+            }
+        }
+        boolean truncated = entries.size() > limit;
+        List<LogEntry> page = truncated ? entries.subList(0, limit) : entries;
+        return new LogSearchResult(new ArrayList<>(page), truncated, scanned, total);
+    }
+
+    private synchronized LogSearchIndex activeIndex(Path file) {
+        if (activeIndex == null) {
+            activeIndex = new LogSearchIndex(file, indexFile(file), false);
+        }
+        return activeIndex;
+    }
+
+    /**
+     * Returns the loaded index of a rolled file, so the cache weighs it by
+     * its full size; rolled files no longer grow.
+     */
+    private LogSearchIndex rolledIndex(Path file) throws IOException {
+        try {
+            return openIndexes.get(file, path -> {
+                LogSearchIndex index = new LogSearchIndex(path, indexFile(path), true);
+                try {
+                    index.refresh();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return index;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path indexFile(Path file) {
+        return indexDirectory.resolve(file.getFileName() + INDEX_EXTENSION);
+    }
+
+    private static void collect(byte[] data, LogSearchCriteria criteria, List<LogEntry> entries,
+                                int max) {
+        int entryStart = -1;
+        int pos = 0;
+        while (pos < data.length && entries.size() < max) {
+            int newline = indexOf(data, pos, (byte) '\n');
+            int lineEnd = newline < 0 ? data.length : newline;
+            if (LogLines.hasTimestamp(data, pos, lineEnd - pos)) {
+                if (entryStart >= 0) {
+                    check(data, entryStart, pos, criteria, entries);
+                }
+                entryStart = pos;
+            }
+            pos = newline < 0 ? data.length : newline + 1;
+        }
+        if (entryStart >= 0 && entries.size() < max) {
+            check(data, entryStart, data.length, criteria, entries);
+        }
+    }
+
+    private static void check(byte[] data, int start, int end, LogSearchCriteria criteria,
+                              List<LogEntry> entries) {
+        int length = end - start;
+        if (length > 0 && data[end - 1] == '\n') {
+            length--;
+        }
+        String text = new String(data, start, length, StandardCharsets.UTF_8);
+        LogEntryTerms.Header header = LogEntryTerms.header(text);
+        if (criteria.matches(header, text)) {
+            entries.add(new LogEntry(header.timestamp, header.level, header.logger,
+                    text.substring(Math.min(header.messageStart, text.length()))));
+        }
+    }
+
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.position() == buffer.capacity()
+                ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Drops the index files of logs that retention has deleted.
+     */
+    private void deleteOrphanedIndexes(Path logDirectory) throws IOException {
+        if (logDirectory == null || !Files.isDirectory(indexDirectory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(indexDirectory)) {
+            for (Path index : entries.toList()) {
+                String name = index.getFileName().toString();
+                if (!name.endsWith(INDEX_EXTENSION)) {
+                    continue;
+                }
+                Path log = logDirectory.resolve(
+                        name.substring(0, name.length() - INDEX_EXTENSION.length()));
+                if (!Files.exists(log)) {
+                    openIndexes.remove(log.toAbsolutePath());
+                    Files.deleteIfExists(index);
+                }
+            }
+        }
+    }
+
+    private static int indexOf(byte[] data, int from, byte value) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
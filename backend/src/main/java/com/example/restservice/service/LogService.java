@@ -1,156 +1,141 @@
 package com.example.restservice.service;
 
-import com.example.restservice.exception.FileProcessingException;
+import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.NotFoundException;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.example.restservice.model.LogSearchQuery;
+import com.example.restservice.model.LogSearchResult;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.nio.file.attribute.PosixFilePermissions;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import org.springframework.core.io.UrlResource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LogService {
-    private static final String LOG_FILE_PATH = "logs/app.log";
-    private final Map<String, String> fileStatus = new ConcurrentHashMap<>();
-    private final Map<String, Path> fileStorage = new ConcurrentHashMap<>();
-    private final Executor asyncProcessor = Executors.newFixedThreadPool(5);
-
-    public CompletableFuture<String> createFilteredLogFileAsync(String date) {
-        String fileId = "log_" + System.currentTimeMillis();
-        fileStatus.put(fileId, "PROCESSING");
-
-        CompletableFuture.runAsync(() -> processFileAsync(fileId, date), asyncProcessor);
-
-        return CompletableFuture.completedFuture(fileId);
+    private final LogQueryEngine queryEngine;
+    private final LogExportCache exportCache;
+
+    public LogService(@Value("${logs.file:logs/app.log}") String logFile,
+                      @Value("${logs.export.dir:}") String exportDir,
+                      @Value("${logs.export.max-bytes:1073741824}") long exportMaxBytes,
+                      @Value("${logs.export.delete-grace:1m}") Duration exportDeleteGrace,
+                      @Value("${logs.scan.parallelism:0}") int scanParallelism,
+                      @Value("${logs.search.index-dir:}") String searchIndexDir,
+                      @Value("${logs.search.index-cache-bytes:67108864}")
+                      long searchIndexCacheBytes) {
+        Path log = Paths.get(logFile);
+        Path indexDirectory = searchIndexDir.isBlank()
+                ? log.toAbsolutePath().resolveSibling(".search-index")
+                : Paths.get(searchIndexDir);
+        this.queryEngine = new LogQueryEngine(log, scanParallelism, indexDirectory,
+                searchIndexCacheBytes);
+        Path directory = exportDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "log-exports")
+                : Paths.get(exportDir);
+        this.exportCache = new LogExportCache(directory, exportMaxBytes, exportDeleteGrace);
     }
 
-    private void processFileAsync(String fileId, String date) {
-        try {
-            Thread.sleep(20000);
-
-            List<String> logs = readLogsByDate(date);
-            File tempFile = createTempLogFile(logs, date);
-
-            fileStorage.put(fileId, tempFile.toPath());
-            fileStatus.put(fileId, "READY");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            fileStatus.put(fileId, "CANCELLED");
-        } catch (Exception e) {
-            fileStatus.put(fileId, "ERROR");
-        }
+    /**
+     * Returns a file holding the lines logged on {@code date}. The lines are
+     * streamed through a fixed-size buffer, however large the log is, and the
+     * result is reused until the log files covering that date change.
+     */
+    public File createFilteredLogFile(String date) throws IOException {
+        return createFilteredLogFile(date, LogFormat.PLAIN);
     }
 
-    public CompletableFuture<String> getFileStatusAsync(String fileId) {
-        return CompletableFuture.supplyAsync(() ->
-                fileStatus.getOrDefault(fileId, "NOT_FOUND"));
+    public File createFilteredLogFile(String date, LogFormat format) throws IOException {
+        LocalDate day = parseDate(date);
+        return createFilteredLogFile(day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                day.toString(), format);
     }
 
-    public CompletableFuture<UrlResource> getFileAsync(String fileId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Path filePath = fileStorage.get(fileId);
-                if (filePath == null || !Files.exists(filePath)) {
-                    throw new NotFoundException("File not found for ID: " + fileId);
-                }
-                return new UrlResource(filePath.toUri());
-            } catch (MalformedURLException e) {
-                throw new FileProcessingException("Failed to create URL resource for file: "
-                                                                                + fileId, e);
-            }
-        });
+    /**
+     * Returns a file holding the lines logged in {@code [from, to)}.
+     */
+    public File createFilteredLogFile(LocalDateTime from, LocalDateTime to) throws IOException {
+        return createFilteredLogFile(from, to, LogFormat.PLAIN);
     }
 
-    public List<String> readLogsByDate(String date) throws IOException {
-        File logFile = new File(LOG_FILE_PATH);
-        if (!logFile.exists()) {
-            throw new NotFoundException("Log file not found");
+    public File createFilteredLogFile(LocalDateTime from, LocalDateTime to, LogFormat format)
+            throws IOException {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
         }
-
-        List<String> logs = readLogsFromFile(logFile);
-        return filterLogsByDate(logs, date);
-    }
-
-    public File createFilteredLogFile(List<String> logs, String date) throws IOException {
-        return createTempLogFile(logs, date);
+        return createFilteredLogFile(from, to, from.format(LogQueryEngine.TIMESTAMP_FORMAT)
+                + "_" + to.format(LogQueryEngine.TIMESTAMP_FORMAT), format);
     }
 
-    private List<String> readLogsFromFile(File logFile) throws IOException {
-        List<String> logs = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
-            }
+    private File createFilteredLogFile(LocalDateTime from, LocalDateTime to, String label,
+                                       LogFormat format) throws IOException {
+        if (!queryEngine.hasLogs()) {
+            throw new NotFoundException("Log file not found");
+        }
+        String query = "logs-" + sanitizeFilename(label);
+        String generation = queryEngine.generation(from, to);
+        Path cached = exportCache.lookup(query, generation, format);
+        if (cached != null) {
+            return cached.toFile();
         }
-        return logs;
-    }
 
-    private List<String> filterLogsByDate(List<String> logs, String date) {
-        List<String> filteredLogs = new ArrayList<>();
-        for (String log : logs) {
-            if (log.startsWith(date)) {
-                filteredLogs.add(log);
-            }
+        Path tempFile = exportCache.createTempFile(query);
+        long matches;
+        try (OutputStream out = new BufferedOutputStream(format.encode(Files.newOutputStream(
+                tempFile, StandardOpenOption.WRITE)), LogLines.BUFFER_SIZE)) {
+            matches = queryEngine.copyRange(from, to, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
         }
-        if (filteredLogs.isEmpty()) {
-            throw new NotFoundException("No logs found for date: " + date);
+        if (matches == 0) {
+            Files.deleteIfExists(tempFile);
+            throw new NotFoundException("No logs found for " + label);
         }
-        return filteredLogs;
-    }
-
-    private File createTempLogFile(List<String> logs, String date) throws IOException {
-        String safeDate = sanitizeFilename(date);
-        Path tempDir = getValidTempDir();
-        Path tempFile = createSecureTempFile(tempDir, safeDate);
-
-        writeLogsToFile(logs, tempFile);
-        tempFile.toFile().deleteOnExit();
-
-        return tempFile.toFile();
+        return exportCache.publish(tempFile, query, generation, format).toFile();
     }
 
-    private Path getValidTempDir() throws IOException {
-        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize();
-        if (!Files.isDirectory(tempDir)) {
-            throw new IOException("Temporary directory is not valid");
+    /**
+     * Finds the entries matching {@code query} with the help of per-file
+     * inverted indexes, so only blocks that can match are read.
+     */
+    public LogSearchResult search(LogSearchQuery query) throws IOException {
+        if (!query.getFrom().isBefore(query.getTo())) {
+            throw new BadRequestException("from must be before to");
+        }
+        if (query.getLimit() <= 0 || query.getLimit() > LogSearchQuery.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and "
+                    + LogSearchQuery.MAX_LIMIT);
         }
-        return tempDir;
+        LogSearchCriteria criteria = new LogSearchCriteria(query);
+        if (criteria.getLevel() != null && !LogEntryTerms.LEVELS.contains(criteria.getLevel())) {
+            throw new BadRequestException("Unknown level: " + query.getLevel());
+        }
+        if (!queryEngine.hasLogs()) {
+            throw new NotFoundException("Log file not found");
+        }
+        return queryEngine.search(query.getFrom(), query.getTo(), criteria, query.getLimit());
     }
 
-    private Path createSecureTempFile(Path tempDir, String safeDate) throws IOException {
-        Path tempFile = Files.createTempFile(tempDir, "logs-" + safeDate + "-", ".log");
-        try {
-            Files.setPosixFilePermissions(tempFile, PosixFilePermissions.fromString("rw-------"));
-        } catch (UnsupportedOperationException e) {
-            // Windows не поддерживает POSIX права
-        }
-        return tempFile;
+    @PreDestroy
+    public void shutdown() {
+        queryEngine.close();
     }
 
-    private void writeLogsToFile(List<String> logs, Path file) throws IOException {
-        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
-                StandardOpenOption.WRITE)) {
-            for (String log : logs) {
-                writer.write(log);
-                writer.newLine();
-            }
+    static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date, expected yyyy-MM-dd: " + date);
         }
     }
 
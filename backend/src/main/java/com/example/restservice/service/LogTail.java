@@ -0,0 +1,385 @@
+package com.example.restservice.service;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.exception.TooManyRequestsException;
+import com.example.restservice.model.LogSearchQuery;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Follows the active log file for any number of subscribers with a single
+ * reader. The reader polls the file from where it last stopped, hands each
+ * complete line to the subscribers whose filter the line's entry passes, and
+ * reads a rolled-over file to its end before switching to the new one. Every
+ * subscriber has a bounded queue; once a slow client lets it fill up, further
+ * lines are dropped and counted rather than holding up the reader or anyone
+ * else. The reader only runs while someone is subscribed.
+ */
+@Service
+public class LogTail {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int MAX_LINE = 64 * 1024;
+    private static final int MAX_BATCH = 256;
+    private static final Duration RECONNECT = Duration.ofSeconds(1);
+
+    private final Path logFile;
+    private final Duration pollInterval;
+    private final Duration heartbeat;
+    private final int bufferLines;
+    private final int maxSubscribers;
+    private final ScheduledExecutorService reader;
+    private final ThreadPoolExecutor writers;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private Follower follower; // guarded by this, like polling
+    private ScheduledFuture<?> polling;
+
+    public LogTail(@Value("${logs.file:logs/app.log}") String logFile,
+                   @Value("${logs.tail.poll-interval:250ms}") Duration pollInterval,
+                   @Value("${logs.tail.heartbeat:15s}") Duration heartbeat,
+                   @Value("${logs.tail.buffer-lines:1000}") int bufferLines,
+                   @Value("${logs.tail.max-subscribers:32}") int maxSubscribers) {
+        this.logFile = Paths.get(logFile);
+        this.pollInterval = pollInterval;
+        this.heartbeat = heartbeat;
+        this.bufferLines = bufferLines;
+        this.maxSubscribers = maxSubscribers;
+        this.reader = Executors.newSingleThreadScheduledExecutor(daemonThreads("log-tail-"));
+        this.writers = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("log-tail-stream-"));
+    }
+
+    /**
+     * Streams the lines appended from now on as server-sent events: each
+     * {@code message} event carries one or more lines separated by newlines,
+     * a {@code dropped} event reports how many lines did not fit the buffer
+     * since the last one, and idle connections get a comment every heartbeat
+     * so dead clients are noticed.
+     */
+    public SseEmitter follow(String level, String logger, String terms, String contains) {
+        Subscription subscription = subscribe(level, logger, terms, contains);
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        try {
+            writers.execute(() -> stream(subscription, emitter));
+        } catch (RejectedExecutionException e) {
+            subscription.close();
+            throw new TooManyRequestsException("Too many log tail subscribers, retry later");
+        }
+        return emitter;
+    }
+
+    /**
+     * Subscribes to the lines appended from now on whose entry matches the
+     * given criteria, all of which are optional. Filters look at the first
+     * line of an entry; its continuation lines, such as stack trace frames,
+     * follow that decision.
+     */
+    public Subscription subscribe(String level, String logger, String terms, String contains) {
+        LogSearchCriteria criteria = new LogSearchCriteria(new LogSearchQuery(EARLIEST, LATEST,
+                level, logger, terms, contains, LogSearchQuery.MAX_LIMIT));
+        if (criteria.getLevel() != null && !LogEntryTerms.LEVELS.contains(criteria.getLevel())) {
+            throw new BadRequestException("Unknown level: " + level);
+        }
+        synchronized (this) {
+            if (subscriptions.size() >= maxSubscribers) {
+                throw new TooManyRequestsException("Too many log tail subscribers, retry later");
+            }
+            Subscription subscription = new Subscription(criteria);
+            subscriptions.add(subscription);
+            if (polling == null) {
+                follower = new Follower(logFile);
+                polling = reader.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(),
+                        pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return subscription;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::close);
+        reader.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        if (subscriptions.isEmpty() && polling != null) {
+            polling.cancel(false);
+            polling = null;
+            follower.close();
+            follower = null;
+        }
+    }
+
+    private synchronized void poll() {
+        if (follower == null) {
+            return;
+        }
+        try {
+            follower.poll(this::dispatch);
+        } catch (IOException e) {
+            // Usually a rollover in progress; the next poll picks up from the same position
+        }
+    }
+
+    private void dispatch(String line, boolean entryStart) {
+        LogEntryTerms.Header header = entryStart ? LogEntryTerms.header(line) : null;
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(header, line);
+        }
+    }
+
+    private void stream(Subscription subscription, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT.toMillis())
+                    .comment("following " + logFile.getFileName()));
+            while (!subscription.isClosed()) {
+                List<String> lines = subscription.take(heartbeat);
+                long dropped = subscription.takeDropped();
+                if (dropped > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(dropped));
+                }
+                if (!lines.isEmpty()) {
+                    emitter.send(SseEmitter.event().data(String.join("\n", lines)));
+                } else if (dropped == 0) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the request has already completed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } finally {
+            subscription.close();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One client's view of the tail: the lines queued for it and the number
+     * of lines it lost to a full queue.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final LogSearchCriteria criteria;
+        private final BlockingQueue<String> lines;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed;
+        private boolean following; // whether the current entry matches; reader thread only
+
+        private Subscription(LogSearchCriteria criteria) {
+            this.criteria = criteria;
+            this.lines = new ArrayBlockingQueue<>(bufferLines);
+        }
+
+        private void offer(LogEntryTerms.Header header, String line) {
+            if (header != null) {
+                following = criteria.matches(header, line);
+            }
+            if (following && !lines.offer(line)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        /**
+         * Waits up to {@code timeout} for a line, then returns it together
+         * with the lines queued behind it; empty if none arrived in time.
+         */
+        public List<String> take(Duration timeout) throws InterruptedException {
+            List<String> batch = new ArrayList<>();
+            String first = lines.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                lines.drainTo(batch, MAX_BATCH - 1);
+            }
+            return batch;
+        }
+
+        /**
+         * Returns the number of lines dropped since the last call.
+         */
+        public long takeDropped() {
+            return dropped.getAndSet(0);
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unsubscribe(this);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineSink {
+        void line(String line, boolean entryStart);
+    }
+
+    /**
+     * Reads the lines appended to a file by position. A new file under the
+     * same name means logback rolled the old one over; whatever was written
+     * to it before the rename is read first. Lines longer than
+     * {@link #MAX_LINE} bytes are cut.
+     */
+    private static final class Follower {
+        private final Path file;
+        private final ByteBuffer buffer = ByteBuffer.allocate(LogLines.BUFFER_SIZE);
+        private FileChannel channel;
+        private Object fileKey;
+        private long position;
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        private Follower(Path file) {
+            this.file = file;
+            try {
+                Object key = fileKey(file);
+                if (key != null) {
+                    open(key);
+                    position = channel.size();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void poll(LineSink sink) throws IOException {
+            // Checked before draining: anything logged to a renamed file was written before this
+            Object current = fileKey(file);
+            if (channel != null) {
+                if (channel.size() < position) {
+                    // Truncated in place; start over from the top
+                    position = 0;
+                    lineLength = 0;
+                }
+                drain(sink);
+            }
+            if (current != null && !current.equals(fileKey)) {
+                if (lineLength > 0) {
+                    emit(sink);
+                }
+                close();
+                open(current);
+                drain(sink);
+            }
+        }
+
+        private void open(Object key) throws IOException {
+            channel = FileChannel.open(file);
+            fileKey = key;
+            position = 0;
+        }
+
+        private void drain(LineSink sink) throws IOException {
+            byte[] data = buffer.array();
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    return;
+                }
+                position += read;
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (data[i] == '\n') {
+                        append(data, start, i - start);
+                        emit(sink);
+                        start = i + 1;
+                    }
+                }
+                append(data, start, read - start);
+            }
+        }
+
+        private void append(byte[] data, int from, int length) {
+            int kept = Math.min(length, MAX_LINE - lineLength);
+            if (kept <= 0) {
+                return;
+            }
+            if (lineLength + kept > line.length) {
+                line = Arrays.copyOf(line, Math.min(MAX_LINE,
+                        Math.max(line.length * 2, lineLength + kept)));
+            }
+            System.arraycopy(data, from, line, lineLength, kept);
+            lineLength += kept;
+        }
+
+        private void emit(LineSink sink) {
+            int length = lineLength > 0 && line[lineLength - 1] == '\r'
+                    ? lineLength - 1 : lineLength;
+            boolean entryStart = LogLines.hasTimestamp(line, 0, length);
+            sink.line(new String(line, 0, length, StandardCharsets.UTF_8), entryStart);
+            lineLength = 0;
+        }
+
+        private void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Nothing was written through it
+                }
+                channel = null;
+            }
+            fileKey = null;
+        }
+
+        private static Object fileKey(Path file) throws IOException {
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(file, BasicFileAttributes.class);
+                return attributes.fileKey() != null
+                        ? attributes.fileKey() : attributes.creationTime();
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+    }
+}
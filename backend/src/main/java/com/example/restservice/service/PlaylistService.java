@@ -1,14 +1,24 @@
 package com.example.restservice.service;
 
+import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.NotFoundException;
 import com.example.restservice.model.*;
 import com.example.restservice.repository.PlaylistRepository;
+import com.example.restservice.repository.PlaylistSongRepository;
 import com.example.restservice.repository.SongRepository;
 import com.example.restservice.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,12 +27,40 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class PlaylistService {
     private final PlaylistRepository playlistRepository;
+    private final PlaylistSongRepository playlistSongRepository;
     private final SongRepository songRepository;
     private final UserRepository userRepository;
+    private final ResponseCacheService responseCacheService;
 
     public List<PlaylistDto> getAllPlaylists() {
-        return playlistRepository.findAll().stream()
-                .map(PlaylistDto::fromEntity)
+        Map<Long, List<String>> songTitles =
+                OwnerName.groupByOwner(playlistRepository.findAllSongTitles());
+        return playlistRepository.findAllRows().stream()
+                .map(row -> PlaylistDto.fromRow(row, songTitles))
+                .collect(Collectors.toList());
+    }
+
+    public KeysetPage<PlaylistDto> getPlaylistsPage(long after, int limit) {
+        List<PlaylistRow> rows = playlistRepository.findRowsAfter(after, Limit.of(limit + 1));
+        return KeysetPage.of(withSongTitles(rows), limit, PlaylistDto::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllPlaylists(Consumer<PlaylistDto> sink) {
+        try (Stream<PlaylistRow> rows = playlistRepository.streamAllRows()) {
+            StreamChunks.forEachChunk(rows, chunk -> withSongTitles(chunk).forEach(sink));
+        }
+    }
+
+    private List<PlaylistDto> withSongTitles(List<PlaylistRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = rows.stream().map(PlaylistRow::getId).collect(Collectors.toList());
+        Map<Long, List<String>> songTitles =
+                OwnerName.groupByOwner(playlistRepository.findSongTitlesByPlaylistIds(ids));
+        return rows.stream()
+                .map(row -> PlaylistDto.fromRow(row, songTitles))
                 .collect(Collectors.toList());
     }
 
@@ -36,22 +74,143 @@ public class PlaylistService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
         playlist.setUser(user);
+        // Songs are added afterwards, through PlaylistSong
+        playlist.setSongs(new ArrayList<>());
         Playlist savedPlaylist = playlistRepository.save(playlist);
+        responseCacheService.invalidate();
         return PlaylistDto.fromEntity(savedPlaylist);
     }
 
+    /**
+     * Appends the songs that are not in the playlist yet, one insert each;
+     * songs already in it stay where they are.
+     */
     @Transactional
     public Playlist addSongsToPlaylist(Long playlistId, List<Long> songIds) {
         Playlist playlist = getPlaylistById(playlistId);
-        List<Song> songs = songRepository.findAllById(songIds);
-        playlist.setSongs(songs);
-        return playlistRepository.save(playlist);
+        Set<Long> present =
+                new HashSet<>(playlistSongRepository.findSongIdsIn(playlistId, songIds));
+        List<Long> added = existingSongIds(songIds);
+        added.removeIf(id -> !present.add(id));
+        if (!added.isEmpty()) {
+            Long last = playlistSongRepository.findLastPosition(playlistId);
+            long position = last == null ? 0 : last;
+            List<PlaylistSong> rows = new ArrayList<>(added.size());
+            for (Long songId : added) {
+                position += SongPositions.STEP;
+                rows.add(new PlaylistSong(playlistId, songId, position));
+            }
+            playlistSongRepository.saveAllAndFlush(rows);
+            responseCacheService.invalidate();
+        }
+        return playlist;
+    }
+
+    @Transactional
+    public Playlist removeSongsFromPlaylist(Long playlistId, List<Long> songIds) {
+        Playlist playlist = getPlaylistById(playlistId);
+        if (playlistSongRepository.deleteSongs(playlistId, songIds) > 0) {
+            responseCacheService.invalidate();
+        }
+        return playlist;
+    }
+
+    /**
+     * Moves a song to {@code index} in the playlist, counting from 0. Usually
+     * only the moved song's row changes.
+     */
+    @Transactional
+    public Playlist moveSong(Long playlistId, Long songId, int index) {
+        Playlist playlist = getPlaylistById(playlistId);
+        List<PlaylistSong> rows = playlistSongRepository.findByPlaylistId(playlistId);
+        List<Long> order = new ArrayList<>(rows.size());
+        rows.forEach(row -> order.add(row.getSongId()));
+        if (!order.remove(songId)) {
+            throw new NotFoundException("Song " + songId + " is not in playlist " + playlistId);
+        }
+        if (index < 0 || index > order.size()) {
+            throw new BadRequestException("index must be between 0 and " + order.size());
+        }
+        order.add(index, songId);
+        if (reorder(playlistId, order, rows, songId)) {
+            responseCacheService.invalidate();
+        }
+        return playlist;
+    }
+
+    /**
+     * Makes the playlist hold exactly {@code songIds} in that order, deleting,
+     * inserting and moving only the rows that differ.
+     */
+    private void replaceSongs(Long playlistId, List<Long> songIds) {
+        List<Long> order = existingSongIds(songIds);
+        Set<Long> wanted = new HashSet<>(order);
+        List<PlaylistSong> rows = playlistSongRepository.findByPlaylistId(playlistId);
+        List<Long> removed = new ArrayList<>();
+        rows.forEach(row -> {
+            if (!wanted.contains(row.getSongId())) {
+                removed.add(row.getSongId());
+            }
+        });
+        if (!removed.isEmpty()) {
+            playlistSongRepository.deleteSongs(playlistId, removed);
+            rows.removeIf(row -> !wanted.contains(row.getSongId()));
+        }
+        reorder(playlistId, order, rows, null);
+    }
+
+    /**
+     * Gives the songs of {@code order} positions in that order, inserting
+     * rows missing from {@code rows} and updating only positions that move.
+     * The song {@code moved}, if any, is placed as if it were new.
+     */
+    private boolean reorder(Long playlistId, List<Long> order, List<PlaylistSong> rows,
+                            Long moved) {
+        Map<Long, PlaylistSong> bySong = new HashMap<>();
+        Map<Long, Long> current = new HashMap<>();
+        for (PlaylistSong row : rows) {
+            bySong.put(row.getSongId(), row);
+            if (!row.getSongId().equals(moved) && row.getPosition() != null) {
+                current.put(row.getSongId(), row.getPosition());
+            }
+        }
+        Map<Long, Long> positions = SongPositions.assign(order, current);
+        List<PlaylistSong> inserted = new ArrayList<>();
+        boolean changed = false;
+        for (Long songId : order) {
+            PlaylistSong row = bySong.get(songId);
+            Long position = positions.get(songId);
+            if (row == null) {
+                inserted.add(new PlaylistSong(playlistId, songId, position));
+            } else if (!position.equals(row.getPosition())) {
+                row.setPosition(position);
+                changed = true;
+            }
+        }
+        playlistSongRepository.saveAll(inserted);
+        playlistSongRepository.flush();
+        return changed || !inserted.isEmpty();
+    }
+
+    /**
+     * The ids of {@code songIds} that name stored songs, in request order
+     * and without repeats.
+     */
+    private List<Long> existingSongIds(List<Long> songIds) {
+        if (songIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> known = new HashSet<>(songRepository.findExistingIds(songIds));
+        return songIds.stream()
+                .distinct()
+                .filter(known::contains)
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 
     public void deletePlaylist(Long playlistId) {
         Playlist playlist = getPlaylistById(playlistId);
-        playlist.getSongs().clear();
-        playlistRepository.delete(playlist);
+        playlistRepository.delete(playlist); // its playlist_songs rows go with it
+        responseCacheService.invalidate();
     }
 
     @Transactional
@@ -65,23 +224,20 @@ public class PlaylistService {
             playlist.setName(request.getName());
         }
 
-        // 3. Обновляем песни (если переданы)
+        // 3. Обновляем песни (если переданы): меняются только отличающиеся строки
         if (request.getSongIds() != null) {
-            // Получаем все песни разом
-            List<Song> songs = songRepository.findAllById(request.getSongIds());
-
-            // Очищаем текущие песни
-            playlist.getSongs().clear();
-
-            // Добавляем новые
-            playlist.getSongs().addAll(songs);
+            replaceSongs(playlistId, request.getSongIds());
         }
 
-        return playlistRepository.save(playlist);
+        Playlist savedPlaylist = playlistRepository.save(playlist);
+        responseCacheService.invalidate();
+        return savedPlaylist;
     }
 
-    public List<Playlist> getPlaylistsWithSongs() {
-        return playlistRepository.findPlaylistsWithSongs();
+    public KeysetPage<PlaylistDto> getPlaylistsWithSongsPage(long after, int limit) {
+        List<PlaylistRow> rows =
+                playlistRepository.findNonEmptyRowsAfter(after, Limit.of(limit + 1));
+        return KeysetPage.of(withSongTitles(rows), limit, PlaylistDto::getId);
     }
 
 }
@@ -0,0 +1,55 @@
+package com.example.restservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Caches the serialized JSON of the catalog list endpoints. Every write to
+ * songs, playlists or users drops all entries, because each list embeds names
+ * from the other two.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResponseCacheService {
+    public static final String SONGS = "songs";
+    public static final String PLAYLISTS = "playlists";
+    public static final String USERS = "users";
+
+    private final CacheStore<String, CachedJson> responseCache;
+    private final ObjectMapper objectMapper;
+
+    public CachedJson get(String key, Supplier<?> loader) {
+        return responseCache.get(key, k -> serialize(loader.get()));
+    }
+
+    public void invalidate() {
+        responseCache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Reads that race the commit could cache pre-commit rows, so drop again
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            responseCache.clear();
+                        }
+                    });
+        }
+    }
+
+    private CachedJson serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            return new CachedJson(body, etag);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize response", e);
+        }
+    }
+}
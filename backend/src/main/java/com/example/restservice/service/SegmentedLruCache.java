@@ -0,0 +1,309 @@
+package com.example.restservice.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe segmented LRU cache bounded by entry count and total weight.
+ * New entries land in the probation segment and are promoted to the protected
+ * segment on their second hit, so one-off lookups cannot flush the hot set.
+ * Loads through {@link #get(Object, Function)} are coalesced per key, and an
+ * entry older than the refresh interval is reloaded by one caller while the
+ * others keep reading the current value.
+ */
+public class SegmentedLruCache<K, V> implements CacheStore<K, V> {
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final int maxProtected;
+    private final long ttlNanos;
+    private final long refreshNanos;
+    private final ToIntFunction<? super V> weigher;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<V>> protectedSegment =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    public SegmentedLruCache(int maxEntries, long maxWeight, Duration ttl,
+                             ToIntFunction<? super V> weigher) {
+        this(maxEntries, maxWeight, ttl, weigher, System::nanoTime);
+    }
+
+    public SegmentedLruCache(int maxEntries, long maxWeight, Duration ttl,
+                             ToIntFunction<? super V> weigher, LongSupplier ticker) {
+        this(maxEntries, maxWeight, ttl, Duration.ZERO, weigher, ticker);
+    }
+
+    public SegmentedLruCache(int maxEntries, long maxWeight, Duration ttl,
+                             Duration refreshAfterWrite, ToIntFunction<? super V> weigher,
+                             LongSupplier ticker) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.maxProtected = Math.max(1, maxEntries * PROTECTED_PERCENT / 100);
+        this.ttlNanos = toNanos(ttl);
+        this.refreshNanos = toNanos(refreshAfterWrite);
+        this.weigher = weigher;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public V get(K key) {
+        lock.lock();
+        try {
+            Node<V> node = lookup(key);
+            return node == null ? null : node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing;
+        lock.lock();
+        try {
+            Node<V> node = lookup(key);
+            if (node != null) {
+                if (!needsRefresh(node) || inFlight.putIfAbsent(key, future) != null) {
+                    return node.value;
+                }
+                existing = null;
+            } else {
+                existing = inFlight.putIfAbsent(key, future);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (existing != null) {
+            coalescedLoads.increment();
+            return await(existing);
+        }
+        return load(key, loader, future);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int weight = Math.max(0, weigher.applyAsInt(value));
+        lock.lock();
+        try {
+            putLocked(key, value, weight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        lock.lock();
+        try {
+            // A load that is still running must not repopulate an invalidated key
+            inFlight.remove(key);
+            removeNode(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            inFlight.clear();
+            probation.clear();
+            protectedSegment.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return probation.size() + protectedSegment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                    loads.sum(), coalescedLoads.sum(),
+                    probation.size() + protectedSegment.size(), totalWeight,
+                    maxEntries, maxWeight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Node<V> lookup(K key) {
+        Node<V> node = protectedSegment.get(key);
+        boolean inProbation = false;
+        if (node == null) {
+            node = probation.get(key);
+            inProbation = node != null;
+        }
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(node)) {
+            removeNode(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        if (inProbation) {
+            promote(key);
+        }
+        hits.increment();
+        return node;
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> future) {
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            if (value != null) {
+                int weight = Math.max(0, weigher.applyAsInt(value));
+                lock.lock();
+                try {
+                    if (inFlight.get(key) == future) {
+                        putLocked(key, value, weight);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void putLocked(K key, V value, int weight) {
+        removeNode(key);
+        if (weight > maxWeight) {
+            return;
+        }
+        probation.put(key, new Node<>(value, weight, ticker.getAsLong()));
+        totalWeight += weight;
+        evictIfNeeded(key);
+    }
+
+    private boolean needsRefresh(Node<V> node) {
+        return refreshNanos > 0 && ticker.getAsLong() - node.writeTime >= refreshNanos;
+    }
+
+    private boolean isExpired(Node<V> node) {
+        return ttlNanos > 0 && ticker.getAsLong() - node.writeTime >= ttlNanos;
+    }
+
+    private void promote(K key) {
+        Node<V> node = probation.remove(key);
+        protectedSegment.put(key, node);
+        if (protectedSegment.size() > maxProtected) {
+            Iterator<Map.Entry<K, Node<V>>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<K, Node<V>> demoted = it.next();
+            it.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private void removeNode(K key) {
+        Node<V> node = probation.remove(key);
+        if (node == null) {
+            node = protectedSegment.remove(key);
+        }
+        if (node != null) {
+            totalWeight -= node.weight;
+        }
+    }
+
+    private void evictIfNeeded(K justAdded) {
+        while (probation.size() + protectedSegment.size() > maxEntries
+                || totalWeight > maxWeight) {
+            K victim = pickVictim(justAdded);
+            if (victim == null) {
+                return;
+            }
+            removeNode(victim);
+            evictions.increment();
+        }
+    }
+
+    private K pickVictim(K justAdded) {
+        for (K key : probation.keySet()) {
+            if (!key.equals(justAdded)) {
+                return key;
+            }
+        }
+        if (!protectedSegment.isEmpty()) {
+            return protectedSegment.keySet().iterator().next();
+        }
+        return null;
+    }
+
+    private static long toNanos(Duration duration) {
+        return duration == null || duration.isZero() || duration.isNegative()
+                ? 0 : duration.toNanos();
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private final int weight;
+        private final long writeTime;
+
+        private Node(V value, int weight, long writeTime) {
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.restservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse positions of the songs in a playlist. Appended songs are spaced
+ * {@link #STEP} apart and a song placed between two others takes a position
+ * between theirs, so a change moves only the rows it is about. The whole
+ * playlist is renumbered only when two neighbours have no room left.
+ */
+final class SongPositions {
+    static final long STEP = 1024;
+
+    private SongPositions() {
+    }
+
+    /**
+     * Returns a position for each song in {@code order}. The largest set of
+     * songs from {@code current} that are still in increasing order keep
+     * their positions; the others get positions spread between their
+     * neighbours.
+     */
+    static Map<Long, Long> assign(List<Long> order, Map<Long, Long> current) {
+        Map<Long, Long> kept = longestIncreasing(order, current);
+        Map<Long, Long> positions = new HashMap<>();
+        long previous = 0;
+        int i = 0;
+        while (i < order.size()) {
+            Long fixed = kept.get(order.get(i));
+            if (fixed != null) {
+                positions.put(order.get(i++), fixed);
+                previous = fixed;
+                continue;
+            }
+            int end = i;
+            while (end < order.size() && !kept.containsKey(order.get(end))) {
+                end++;
+            }
+            int run = end - i;
+            long next = end < order.size()
+                    ? kept.get(order.get(end)) : previous + STEP * (run + 1);
+            if (next - previous <= run) {
+                return renumber(order);
+            }
+            long start = previous;
+            for (int k = 1; k <= run; k++) {
+                previous = start + (next - start) * k / (run + 1);
+                positions.put(order.get(i++), previous);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Picks the songs of {@code order} whose current positions form the
+     * longest strictly increasing run, in O(n log n).
+     */
+    private static Map<Long, Long> longestIncreasing(List<Long> order, Map<Long, Long> current) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : order) {
+            if (current.get(id) != null && current.get(id) > 0) {
+                ids.add(id);
+            }
+        }
+        long[] tails = new long[ids.size()];
+        int[] tailIndex = new int[ids.size()];
+        int[] parent = new int[ids.size()];
+        int length = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            long position = current.get(ids.get(i));
+            int slot = Arrays.binarySearch(tails, 0, length, position);
+            if (slot >= 0) {
+                continue; // two songs cannot share a position
+            }
+            slot = -slot - 1;
+            tails[slot] = position;
+            tailIndex[slot] = i;
+            parent[i] = slot > 0 ? tailIndex[slot - 1] : -1;
+            length = Math.max(length, slot + 1);
+        }
+        Map<Long, Long> kept = new HashMap<>();
+        for (int i = length > 0 ? tailIndex[length - 1] : -1; i >= 0; i = parent[i]) {
+            kept.put(ids.get(i), current.get(ids.get(i)));
+        }
+        return kept;
+    }
+
+    private static Map<Long, Long> renumber(List<Long> order) {
+        Map<Long, Long> positions = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i), (i + 1) * STEP);
+        }
+        return positions;
+    }
+}
@@ -2,19 +2,27 @@ package com.example.restservice.service;
 
 import com.example.restservice.exception.BadRequestException;
 import com.example.restservice.exception.NotFoundException;
-import com.example.restservice.model.Playlist;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.KeysetPage;
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Song;
 import com.example.restservice.model.SongDto;
-import com.example.restservice.repository.PlaylistRepository;
+import com.example.restservice.model.SongSummary;
 import com.example.restservice.repository.SongRepository;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 
@@ -23,12 +31,38 @@ import org.springframework.stereotype.Service;
 public class SongService {
     Logger logger = Logger.getLogger(SongService.class.getName());
     private final SongRepository songRepository;
-    private final PlaylistRepository playlistRepository;
-    private final LinkedHashMap<String, List<Song>> songsCache;
+    private final CacheStore<String, List<SongSummary>> songsCache;
+    private final ResponseCacheService responseCacheService;
 
     public List<SongDto> getAllSongs() {
-        return songRepository.findAll().stream()
-                .map(SongDto::fromEntity)
+        Map<Long, List<String>> playlistNames =
+                OwnerName.groupByOwner(songRepository.findAllPlaylistNames());
+        return songRepository.findAllSummaries().stream()
+                .map(song -> SongDto.fromSummary(song, playlistNames))
+                .collect(Collectors.toList());
+    }
+
+    public KeysetPage<SongDto> getSongsPage(long after, int limit) {
+        List<SongSummary> songs = songRepository.findSummariesAfter(after, Limit.of(limit + 1));
+        return KeysetPage.of(withPlaylistNames(songs), limit, SongDto::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllSongs(Consumer<SongDto> sink) {
+        try (Stream<SongSummary> songs = songRepository.streamAllSummaries()) {
+            StreamChunks.forEachChunk(songs, chunk -> withPlaylistNames(chunk).forEach(sink));
+        }
+    }
+
+    private List<SongDto> withPlaylistNames(List<SongSummary> songs) {
+        if (songs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = songs.stream().map(SongSummary::getId).collect(Collectors.toList());
+        Map<Long, List<String>> playlistNames =
+                OwnerName.groupByOwner(songRepository.findPlaylistNamesBySongIds(ids));
+        return songs.stream()
+                .map(song -> SongDto.fromSummary(song, playlistNames))
                 .collect(Collectors.toList());
     }
 
@@ -48,7 +82,9 @@ public class SongService {
             }
         });
 
-        return songRepository.saveAll(songs);
+        List<Song> savedSongs = songRepository.saveAll(songs);
+        responseCacheService.invalidate();
+        return savedSongs;
     }
 
     public Song updateSong(Long id, Song songDetails) {
@@ -59,6 +95,7 @@ public class SongService {
         existingSong.setArtist(songDetails.getArtist());
 
         Song updatedSong = songRepository.save(existingSong);
+        responseCacheService.invalidate();
 
         songsCache.remove(existingSong.getArtist());
         logger.log(Level.INFO, "[CACHE] Removed outdated cache for artist: {0}",
@@ -67,21 +104,34 @@ public class SongService {
         return updatedSong;
     }
 
+    @Transactional
     public void deleteSong(Long id) {
-        Song song = getSongById(id);
-        String artist = song.getArtist();
-
-        for (Playlist playlist : song.getPlaylists()) {
-            playlist.getSongs().remove(song);
-            playlistRepository.save(playlist);
+        if (deleteSongs(List.of(id)).getDeleted() == 0) {
+            throw new NotFoundException("Song not found with id: " + id);
         }
-        songRepository.delete(song);
+    }
 
-        songsCache.remove(artist);
-        logger.log(Level.INFO, "[CACHE] Removed songs cache for artist: {0}", artist);
+    /**
+     * Deletes songs and their playlist entries in three statements, however
+     * many playlists hold them: one lookup and two bulk deletes.
+     */
+    @Transactional
+    public BatchDeleteResult deleteSongs(Collection<Long> ids) {
+        List<SongSummary> songs = songRepository.findSummariesByIds(ids);
+        List<Long> found = songs.stream().map(SongSummary::getId).collect(Collectors.toList());
+        int deleted = 0;
+        if (!found.isEmpty()) {
+            deleted = songRepository.deleteByIds(found);
+            responseCacheService.invalidate();
+            songs.stream().map(SongSummary::getArtist).distinct().forEach(artist -> {
+                songsCache.remove(artist);
+                logger.log(Level.INFO, "[CACHE] Removed songs cache for artist: {0}", artist);
+            });
+        }
+        return BatchDeleteResult.of(deleted, ids, found);
     }
 
-    public List<Song> getSongsByArtist(String artist) {
+    public List<SongSummary> getSongsByArtist(String artist) {
         if (artist == null || artist.isEmpty()) {
             throw new BadRequestException("Artist name cannot be null or empty");
         }
@@ -92,19 +142,13 @@ public class SongService {
 
         artist = artist.replaceAll("[\n\r]", "_");
 
-        if (songsCache.containsKey(artist)) {
-            logger.log(Level.INFO, "[CACHE] Retrieved songs for artist: {0}", artist);
-            return songsCache.get(artist);
-        }
-
-        logger.log(Level.INFO, "[DB] Querying database for artist: {0}", artist);
-
-        List<Song> songs = songRepository.findByArtist(artist);
-
-        songsCache.put(artist, songs);
-
-        logger.log(Level.INFO, "[CACHE] Added songs to cache for artist: {0}", artist);
-        return songs;
+        // Concurrent misses for one artist share a single database query
+        return songsCache.get(artist, key -> {
+            logger.log(Level.INFO, "[DB] Querying database for artist: {0}", key);
+            List<SongSummary> songs = List.copyOf(songRepository.findSummariesByArtist(key));
+            logger.log(Level.INFO, "[CACHE] Added songs to cache for artist: {0}", key);
+            return songs;
+        });
     }
 }
 
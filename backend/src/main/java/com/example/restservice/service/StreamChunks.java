@@ -0,0 +1,33 @@
+package com.example.restservice.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+final class StreamChunks {
+    static final int CHUNK_SIZE = 500;
+
+    private StreamChunks() {
+    }
+
+    /**
+     * Hands the rows to the action in fixed-size chunks, so related data can be
+     * fetched with one query per chunk instead of one per row.
+     */
+    static <T> void forEachChunk(Stream<T> rows, Consumer<List<T>> action) {
+        Iterator<T> iterator = rows.iterator();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                action.accept(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            action.accept(chunk);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.restservice.service;
 
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.KeysetPage;
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistDto;
+import com.example.restservice.model.PlaylistRow;
 import com.example.restservice.model.User;
 import com.example.restservice.model.UserDto;
 import com.example.restservice.model.UserUpdateRequest;
 import com.example.restservice.repository.PlaylistRepository;
 import com.example.restservice.repository.UserRepository;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,11 +30,56 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
     private final UserRepository userRepository;
     private final PlaylistRepository playlistRepository;
+    private final ResponseCacheService responseCacheService;
 
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserDto::fromEntity)
-                .collect(Collectors.toList());
+        List<UserDto> users = userRepository.findAllRows();
+        Map<Long, List<String>> songTitles =
+                OwnerName.groupByOwner(playlistRepository.findAllSongTitles());
+        attachPlaylists(users, playlistRepository.findAllRows(), songTitles);
+        return users;
+    }
+
+    public KeysetPage<UserDto> getUsersPage(long after, int limit) {
+        List<UserDto> users = userRepository.findRowsAfter(after, Limit.of(limit + 1));
+        return KeysetPage.of(withPlaylists(users), limit, UserDto::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDto> sink) {
+        try (Stream<UserDto> users = userRepository.streamAllRows()) {
+            StreamChunks.forEachChunk(users, chunk -> withPlaylists(chunk).forEach(sink));
+        }
+    }
+
+    private List<UserDto> withPlaylists(List<UserDto> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        List<Long> userIds = users.stream().map(UserDto::getId).collect(Collectors.toList());
+        List<PlaylistRow> playlists = playlistRepository.findRowsByUserIds(userIds);
+        Map<Long, List<String>> songTitles = Map.of();
+        if (!playlists.isEmpty()) {
+            List<Long> playlistIds = playlists.stream()
+                    .map(PlaylistRow::getId)
+                    .collect(Collectors.toList());
+            songTitles = OwnerName.groupByOwner(
+                    playlistRepository.findSongTitlesByPlaylistIds(playlistIds));
+        }
+        attachPlaylists(users, playlists, songTitles);
+        return users;
+    }
+
+    private void attachPlaylists(List<UserDto> users, List<PlaylistRow> playlists,
+                                 Map<Long, List<String>> songTitles) {
+        Map<Long, UserDto> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        for (PlaylistRow row : playlists) {
+            UserDto owner = byId.get(row.getUserId());
+            if (owner != null) {
+                owner.getPlaylists().add(PlaylistDto.fromRow(row, songTitles));
+            }
+        }
     }
 
     public User getUserById(Long userId) {
@@ -31,11 +87,15 @@ public class UserService {
     }
 
     public User createUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        responseCacheService.invalidate();
+        return savedUser;
     }
 
     public List<User> createUsers(List<User> users) {
-        return userRepository.saveAll(users);
+        List<User> savedUsers = userRepository.saveAll(users);
+        responseCacheService.invalidate();
+        return savedUsers;
     }
 
     @Transactional
@@ -67,26 +127,31 @@ public class UserService {
 
         // 4. Сохраняем (не обязательно, т.к. @Transactional)
         userRepository.save(user);
+        responseCacheService.invalidate();
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
-
-        // Удаляем все плейлисты пользователя
-        List<Playlist> playlists = user.getPlaylists();
-        if (playlists != null) {
-            // Сначала разрываем связи с песнями
-            playlists.forEach(playlist -> {
-                if (playlist.getSongs() != null) {
-                    playlist.getSongs().clear();
-                }
-            });
-            playlistRepository.deleteAll(playlists);
+        if (deleteUsers(List.of(userId)).getDeleted() == 0) {
+            throw new NotFoundException("User not found");
         }
+    }
 
-        // Затем удаляем самого пользователя
-        userRepository.delete(user);
+    /**
+     * Deletes users with their playlists and playlist entries in four
+     * statements, without loading any of them.
+     */
+    @Transactional
+    public BatchDeleteResult deleteUsers(Collection<Long> ids) {
+        List<Long> found = userRepository.findExistingIds(ids);
+        int deleted = 0;
+        if (!found.isEmpty()) {
+            // Сначала плейлисты вместе со связями с песнями, затем сами пользователи
+            playlistRepository.deleteByUserIds(found);
+            deleted = userRepository.deleteByIds(found);
+            responseCacheService.invalidate();
+        }
+        return BatchDeleteResult.of(deleted, ids, found);
     }
 }
 
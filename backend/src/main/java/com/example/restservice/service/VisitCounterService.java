@@ -1,21 +1,43 @@
 package com.example.restservice.service;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Counts requests per route. Each counter is a {@link LongAdder}, so
+ * concurrent requests to the same route do not contend on one value. Once
+ * {@code maxKeys} routes are known, visits to further ones are counted
+ * under {@link #OTHER}.
+ */
 @Service
 public class VisitCounterService {
-    private final Map<String, AtomicLong> urlCounterMap = new ConcurrentHashMap<>();
+    public static final String OTHER = "(other)";
+
+    private final Map<String, LongAdder> urlCounterMap = new ConcurrentHashMap<>();
+    private final int maxKeys;
+
+    public VisitCounterService(@Value("${visits.max-keys:1000}") int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
 
     public void incrementCounter(String url) {
-        urlCounterMap.computeIfAbsent(url, k -> new AtomicLong(0)).incrementAndGet();
+        LongAdder counter = urlCounterMap.get(url);
+        if (counter == null) {
+            // Checked without locking, so concurrent new routes may overshoot by a few
+            String key = urlCounterMap.size() < maxKeys ? url : OTHER;
+            counter = urlCounterMap.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
     }
 
     public Map<String, Long> getAllCounts() {
-        Map<String, Long> result = new ConcurrentHashMap<>();
-        urlCounterMap.forEach((key, value) -> result.put(key, value.get()));
-        return result;
+        Map<String, Long> result = new TreeMap<>();
+        urlCounterMap.forEach((key, value) -> result.put(key, value.sum()));
+        return Collections.unmodifiableMap(result);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+-- Catalog tables as the entities map them. Every statement is guarded, so
+-- databases created earlier by ddl-auto=update are baselined below this
+-- version and still pass through it unchanged.
+
+CREATE SEQUENCE IF NOT EXISTS songs_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS playlists_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS songs (
+    id     BIGINT       NOT NULL PRIMARY KEY,
+    title  VARCHAR(255) NOT NULL,
+    artist VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS playlists (
+    id      BIGINT       NOT NULL PRIMARY KEY,
+    name    VARCHAR(255),
+    user_id BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS playlist_songs (
+    playlist_id BIGINT NOT NULL REFERENCES playlists (id),
+    song_id     BIGINT NOT NULL REFERENCES songs (id)
+);
@@ -0,0 +1,25 @@
+-- playlist_songs was a bag: no key, so a song could sit in a playlist twice
+-- and nothing but a full scan found a row. It is rebuilt keyed by
+-- (playlist_id, song_id), keeping one row per pair. Rows get positions
+-- 1024 apart in their current order. Rows are only ever written through
+-- PlaylistSong, so position has no default.
+
+ALTER TABLE playlist_songs ADD COLUMN IF NOT EXISTS position BIGINT;
+
+CREATE TABLE playlist_songs_keyed (
+    playlist_id BIGINT NOT NULL REFERENCES playlists (id),
+    song_id     BIGINT NOT NULL REFERENCES songs (id),
+    position    BIGINT NOT NULL,
+    CONSTRAINT pk_playlist_songs PRIMARY KEY (playlist_id, song_id)
+);
+
+INSERT INTO playlist_songs_keyed (playlist_id, song_id, position)
+SELECT playlist_id, song_id,
+       1024 * ROW_NUMBER() OVER (PARTITION BY playlist_id
+                                 ORDER BY MIN(position) NULLS LAST, song_id)
+FROM playlist_songs
+GROUP BY playlist_id, song_id;
+
+DROP TABLE playlist_songs;
+
+ALTER TABLE playlist_songs_keyed RENAME TO playlist_songs;
@@ -0,0 +1,11 @@
+-- Indexes for the columns the hot queries filter and join on. Lookups by
+-- playlist use the leading column of pk_playlist_songs.
+
+-- SongRepository.findSummariesByArtist
+CREATE INDEX IF NOT EXISTS idx_songs_artist ON songs (artist);
+
+-- PlaylistRepository.findRowsByUserIds and bulk user deletes
+CREATE INDEX IF NOT EXISTS idx_playlists_user ON playlists (user_id);
+
+-- Playlist names of songs (SongDto) and bulk song deletes
+CREATE INDEX IF NOT EXISTS idx_playlist_songs_song ON playlist_songs (song_id);
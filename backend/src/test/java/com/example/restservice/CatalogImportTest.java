@@ -0,0 +1,205 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.model.ImportChunk;
+import com.example.restservice.model.ImportReport;
+import com.example.restservice.model.Song;
+import com.example.restservice.service.CatalogImporter;
+import com.example.restservice.service.IdSequences;
+import com.example.restservice.service.ImportFormat;
+import com.example.restservice.service.SongService;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogImportTest {
+    @Autowired
+    private CatalogImporter catalogImporter;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private IdSequences idSequences;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM songs WHERE title LIKE 'bulk-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bulk-%'");
+    }
+
+    @Test
+    void importSongs_ShouldWriteAStreamedArrayInChunks() throws Exception {
+        ImportReport report = catalogImporter.importSongs(
+                songsJson(2345, -1), ImportFormat.JSON_ARRAY, 0);
+
+        assertTrue(report.isCompleted());
+        assertEquals(2345, report.getRows());
+        assertEquals(List.of(0L, 1000L, 2000L), report.getChunks().stream()
+                .map(ImportChunk::getFirstRecord).collect(Collectors.toList()));
+        assertTrue(report.getRowsPerSecond() > 0);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM songs WHERE title LIKE 'bulk-%'", Long.class);
+        assertEquals(2345, new HashSet<>(ids).size());
+
+        Song created = songService.createSongs(List.of(song("bulk-after"))).get(0);
+        assertTrue(ids.stream().noneMatch(created.getId()::equals));
+    }
+
+    @Test
+    void importSongs_ShouldStopAtAnInvalidRecordAndResumeAfterIt() throws Exception {
+        ImportReport failed = catalogImporter.importSongs(
+                songsJson(1500, 1200), ImportFormat.JSON_ARRAY, 0);
+
+        assertFalse(failed.isCompleted());
+        assertTrue(failed.getError().contains("record 1200"), failed.getError());
+        assertEquals(1000, failed.getNextRecord());
+        assertEquals(1000, countSongs());
+
+        ImportReport resumed = catalogImporter.importSongs(
+                songsJson(1500, -1), ImportFormat.JSON_ARRAY, failed.getNextRecord());
+
+        assertTrue(resumed.isCompleted());
+        assertEquals(1000, resumed.getResumedFrom());
+        assertEquals(500, resumed.getRows());
+        assertEquals(1500, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT title) FROM songs WHERE title LIKE 'bulk-%'", Long.class));
+    }
+
+    @Test
+    void importSongs_ShouldReadCsvWithAHeaderRow() throws Exception {
+        String csv = "artist,title\n"
+                + "Adele,bulk-Hello\n"
+                + "\"Earth, Wind & Fire\", bulk-September \n";
+
+        ImportReport report = catalogImporter.importSongs(stream(csv), ImportFormat.CSV, 0);
+
+        assertTrue(report.isCompleted(), report.getError());
+        assertEquals(2, report.getRows());
+        assertEquals("Earth, Wind & Fire", jdbcTemplate.queryForObject(
+                "SELECT artist FROM songs WHERE title = 'bulk-September'", String.class));
+    }
+
+    @Test
+    void importSongs_ShouldRejectABlankArtist() throws Exception {
+        ImportReport json = catalogImporter.importSongs(
+                stream("{\"title\":\"bulk-a\",\"artist\":\"  \"}\n"), ImportFormat.NDJSON, 0);
+        ImportReport csv = catalogImporter.importSongs(
+                stream("artist,title\nAdele,bulk-b\n,bulk-c\n"), ImportFormat.CSV, 0);
+
+        assertFalse(json.isCompleted());
+        assertTrue(json.getError().contains("artist"), json.getError());
+        assertFalse(csv.isCompleted());
+        assertTrue(csv.getError().contains("record 1"), csv.getError());
+        assertEquals(0, countSongs());
+    }
+
+    @Test
+    void importUsers_ShouldRollBackTheChunkHoldingADuplicate() throws Exception {
+        ImportReport first = catalogImporter.importUsers(
+                stream("{\"username\":\"bulk-a\"}\n{\"username\":\"bulk-b\"}\n"),
+                ImportFormat.NDJSON, 0);
+        ImportReport second = catalogImporter.importUsers(
+                stream("{\"username\":\"bulk-c\"}\n{\"username\":\"bulk-a\"}\n"),
+                ImportFormat.NDJSON, 0);
+
+        assertEquals(2, first.getRows());
+        assertFalse(second.isCompleted());
+        assertTrue(second.getError().startsWith("Chunk starting at record 0"), second.getError());
+        assertEquals(0, second.getNextRecord());
+        assertEquals(List.of("bulk-a", "bulk-b"), jdbcTemplate.queryForList(
+                "SELECT username FROM users WHERE username LIKE 'bulk-%' ORDER BY username",
+                String.class));
+    }
+
+    @Test
+    void importSongs_ShouldRejectBodiesThatAreNotAnArray() {
+        assertThrows(BadRequestException.class, () -> catalogImporter.importSongs(
+                stream("{\"title\":\"bulk-x\"}"), ImportFormat.JSON_ARRAY, 0));
+    }
+
+    @Test
+    void importFormat_ShouldFollowTheContentType() {
+        assertEquals(ImportFormat.CSV, ImportFormat.of("text/csv; charset=UTF-8"));
+        assertEquals(ImportFormat.NDJSON, ImportFormat.of("application/x-ndjson"));
+        assertThrows(BadRequestException.class, () -> ImportFormat.of("text/plain"));
+    }
+
+    @Test
+    void createSongs_ShouldInsertInJdbcBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Song> songs = IntStream.range(0, 120)
+                .mapToObj(i -> song("bulk-" + i))
+                .collect(Collectors.toCollection(ArrayList::new));
+        statistics.clear();
+
+        songService.createSongs(songs);
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        // Three id blocks and two insert batches instead of a round trip per row
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void alignWithExistingIds_ShouldMoveSequencesPastIdsAlreadyInUse() {
+        long taken = idSequences.nextBlock("songs_seq") + 10_000;
+        jdbcTemplate.update("INSERT INTO songs (id, title, artist) VALUES (?, 'bulk-old', 'A')",
+                taken);
+
+        idSequences.alignWithExistingIds();
+
+        assertTrue(idSequences.nextBlock("songs_seq") > taken);
+    }
+
+    private static Song song(String title) {
+        Song song = new Song();
+        song.setTitle(title);
+        song.setArtist("Bulk Artist");
+        return song;
+    }
+
+    private long countSongs() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM songs WHERE title LIKE 'bulk-%'", Long.class);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream songsJson(int count, int invalidAt) {
+        String json = IntStream.range(0, count)
+                .mapToObj(i -> i == invalidAt
+                        ? "{\"title\":\"\",\"artist\":\"Bulk Artist\"}"
+                        : "{\"title\":\"bulk-" + i + "\",\"artist\":\"Bulk Artist " + i % 7 + "\"}")
+                .collect(Collectors.joining(",\n", "[\n", "\n]"));
+        return stream(json);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.restservice;
+
+import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistDto;
+import com.example.restservice.model.PlaylistSong;
+import com.example.restservice.model.Song;
+import com.example.restservice.model.User;
+import com.example.restservice.service.PlaylistService;
+import com.example.restservice.service.SongService;
+import com.example.restservice.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Transactional
+class CatalogQueryCountTest {
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listQueries_ShouldUseConstantStatementCount_AsDataGrows() {
+        seed(2, 2, 4);
+        long songsSmall = countStatements(songService::getAllSongs);
+        long playlistsSmall = countStatements(playlistService::getAllPlaylists);
+        long usersSmall = countStatements(userService::getAllUsers);
+
+        seed(30, 4, 60);
+        long songsLarge = countStatements(songService::getAllSongs);
+        long playlistsLarge = countStatements(playlistService::getAllPlaylists);
+        long usersLarge = countStatements(userService::getAllUsers);
+
+        assertEquals(2, songsSmall);
+        assertEquals(2, playlistsSmall);
+        assertEquals(3, usersSmall);
+        assertEquals(songsSmall, songsLarge);
+        assertEquals(playlistsSmall, playlistsLarge);
+        assertEquals(usersSmall, usersLarge);
+    }
+
+    @Test
+    void pageQueries_ShouldUseConstantStatementCount_AsPageGrows() {
+        seed(40, 3, 80);
+
+        assertEquals(countStatements(() -> songService.getSongsPage(0, 5)),
+                countStatements(() -> songService.getSongsPage(0, 50)));
+        assertEquals(countStatements(() -> playlistService.getPlaylistsPage(0, 5)),
+                countStatements(() -> playlistService.getPlaylistsPage(0, 50)));
+        assertEquals(3, countStatements(() -> userService.getUsersPage(0, 5)));
+        assertEquals(3, countStatements(() -> userService.getUsersPage(0, 30)));
+    }
+
+    @Test
+    void streamQueries_ShouldIssueOneLookupPerChunk() {
+        seed(10, 3, 40);
+
+        assertEquals(2, countStatements(() -> songService.streamAllSongs(song -> { })));
+        assertEquals(2, countStatements(() -> playlistService.streamAllPlaylists(p -> { })));
+        assertEquals(3, countStatements(() -> userService.streamAllUsers(user -> { })));
+    }
+
+    @Test
+    void nonEmptyPlaylistPage_ShouldSkipEmptyPlaylistsInTwoStatements() {
+        seed(10, 3, 40);
+        entityManager.persist(new Playlist(null, "Empty " + next(), null, new ArrayList<>()));
+
+        assertEquals(2, countStatements(() -> playlistService.getPlaylistsWithSongsPage(0, 100)));
+        List<PlaylistDto> playlists = playlistService.getPlaylistsWithSongsPage(0, 100).getItems();
+        assertEquals(30, playlists.size());
+        assertTrue(playlists.stream().noneMatch(playlist -> playlist.getSongTitles().isEmpty()));
+    }
+
+    @Test
+    void deletes_ShouldUseConstantStatementCount_AsPlaylistsGrow() {
+        seed(2, 2, 4);
+        Long rareSong = mostPlaylistedSong();
+        long small = countStatements(() -> songService.deleteSong(rareSong));
+
+        seed(40, 3, 4);
+        Long popularSong = mostPlaylistedSong();
+        long large = countStatements(() -> songService.deleteSong(popularSong));
+        List<Long> userIds = entityManager.createQuery("SELECT u.id FROM User u", Long.class)
+                .getResultList();
+        long users = countStatements(() -> userService.deleteUsers(userIds));
+
+        assertEquals(3, small);
+        assertEquals(small, large);
+        assertEquals(4, users);
+        assertEquals(0L, entityManager.createQuery("SELECT COUNT(p) FROM Playlist p", Long.class)
+                .getSingleResult());
+    }
+
+    private Long mostPlaylistedSong() {
+        return entityManager.createQuery("SELECT ps.id.songId FROM PlaylistSong ps "
+                        + "GROUP BY ps.id.songId ORDER BY COUNT(ps) DESC, ps.id.songId DESC",
+                        Long.class)
+                .setMaxResults(1)
+                .getSingleResult();
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(int users, int playlistsPerUser, int songCount) {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < songCount; i++) {
+            Song song = new Song(null, "Song " + next(), "Artist " + (i % 7), new ArrayList<>());
+            entityManager.persist(song);
+            songs.add(song);
+        }
+        for (int u = 0; u < users; u++) {
+            User user = new User(null, "user" + next(), new ArrayList<>());
+            entityManager.persist(user);
+            for (int p = 0; p < playlistsPerUser; p++) {
+                Playlist playlist = new Playlist(null, "Playlist " + next(), user,
+                        new ArrayList<>());
+                entityManager.persist(playlist);
+                for (int s = 0; s < 3; s++) {
+                    Song song = songs.get((u + p + s * 5) % songs.size());
+                    entityManager.persist(new PlaylistSong(playlist.getId(), song.getId(),
+                            (s + 1) * 1024L));
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private int next() {
+        return ++sequence;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.exception.TooManyRequestsException;
+import com.example.restservice.service.LogExportJobs;
+import com.example.restservice.service.LogFormat;
+import com.example.restservice.service.LogService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LogExportJobsTest {
+
+    @Mock
+    private LogService logService;
+
+    @TempDir
+    Path tempDir;
+
+    private LogExportJobs jobs;
+
+    @AfterEach
+    void tearDown() {
+        if (jobs != null) {
+            jobs.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldExportInBackgroundAndServeTheFile() throws Exception {
+        File result = exportFile("2025-03-02");
+        when(logService.createFilteredLogFile("2025-03-02")).thenReturn(result);
+        jobs = new LogExportJobs(logService, 2, 4, Duration.ofMinutes(30));
+
+        String fileId = jobs.submit("2025-03-02");
+
+        awaitStatus(fileId, "READY");
+        assertEquals(result.toPath(), jobs.getFile(fileId));
+    }
+
+    @Test
+    void getFile_ShouldFetchOtherFormatsFromTheExportCache() throws Exception {
+        File compressed = exportFile("2025-03-02.gz");
+        when(logService.createFilteredLogFile("2025-03-02")).thenReturn(exportFile("2025-03-02"));
+        when(logService.createFilteredLogFile("2025-03-02", LogFormat.GZIP))
+                .thenReturn(compressed);
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ofMinutes(30));
+
+        String fileId = jobs.submit("2025-03-02");
+        awaitStatus(fileId, "READY");
+
+        assertEquals(compressed.toPath(), jobs.getFile(fileId, LogFormat.GZIP));
+        assertThrows(NotFoundException.class, () -> jobs.getFile("unknown", LogFormat.GZIP));
+    }
+
+    @Test
+    void submit_ShouldShareOneJobForTheSameDate() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        File result = exportFile("2025-03-02");
+        when(logService.createFilteredLogFile("2025-03-02")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        jobs = new LogExportJobs(logService, 2, 4, Duration.ofMinutes(30));
+
+        String first = jobs.submit("2025-03-02");
+        String second = jobs.submit("2025-03-02");
+        release.countDown();
+        awaitStatus(first, "READY");
+
+        assertEquals(first, second);
+        assertEquals(first, jobs.submit("2025-03-02"));
+        verify(logService, times(1)).createFilteredLogFile("2025-03-02");
+    }
+
+    @Test
+    void submit_ShouldRejectWithTooManyRequests_WhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(logService.createFilteredLogFile(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return exportFile(invocation.getArgument(0));
+        });
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ofMinutes(30));
+
+        String running = jobs.submit("2025-03-01");
+        awaitInvocation();
+        String queued = jobs.submit("2025-03-02");
+
+        assertThrows(TooManyRequestsException.class, () -> jobs.submit("2025-03-03"));
+        assertEquals("NOT_FOUND", jobs.getStatus("unknown"));
+        release.countDown();
+        awaitStatus(running, "READY");
+        awaitStatus(queued, "READY");
+    }
+
+    @Test
+    void cancel_ShouldInterruptRunningJobAndAllowResubmit() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(logService.createFilteredLogFile("2025-03-02")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return exportFile("late");
+        });
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ofMinutes(30));
+
+        String fileId = jobs.submit("2025-03-02");
+        awaitInvocation();
+        jobs.cancel(fileId);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals("CANCELLED", jobs.getStatus(fileId));
+        assertNotEquals(fileId, jobs.submit("2025-03-02"));
+        assertThrows(NotFoundException.class, () -> jobs.cancel("unknown"));
+    }
+
+    @Test
+    void cancel_ShouldForgetTheResultOfAFinishedJob() throws Exception {
+        File result = exportFile("2025-03-02");
+        when(logService.createFilteredLogFile("2025-03-02")).thenReturn(result);
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ofMinutes(30));
+
+        String fileId = jobs.submit("2025-03-02");
+        awaitStatus(fileId, "READY");
+        jobs.cancel(fileId);
+
+        assertEquals("CANCELLED", jobs.getStatus(fileId));
+        assertThrows(NotFoundException.class, () -> jobs.getFile(fileId));
+        assertTrue(result.exists());
+    }
+
+    @Test
+    void evictExpired_ShouldDropFinishedJobs() throws Exception {
+        File result = exportFile("2025-03-02");
+        when(logService.createFilteredLogFile("2025-03-02")).thenReturn(result);
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ZERO);
+
+        String fileId = jobs.submit("2025-03-02");
+        awaitStatus(fileId, "READY");
+        jobs.evictExpired();
+
+        assertEquals("NOT_FOUND", jobs.getStatus(fileId));
+        assertNotEquals(fileId, jobs.submit("2025-03-02"));
+    }
+
+    @Test
+    void submit_ShouldStartOver_WhenTheCacheDroppedTheResultOfAReadyJob() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "2025-03-02 10:00:00 - first\n", StandardCharsets.UTF_8);
+        LogService realLogService = new LogService(log.toString(),
+                tempDir.resolve("exports").toString(), Long.MAX_VALUE, Duration.ofMinutes(1), 1,
+                "", Long.MAX_VALUE);
+        jobs = new LogExportJobs(realLogService, 1, 1, Duration.ofMinutes(30));
+        String first = jobs.submit("2025-03-02");
+        awaitStatus(first, "READY");
+        Path firstFile = jobs.getFile(first);
+
+        // The log grows and a newer generation is published once the old one is past the grace
+        Files.writeString(log, "2025-03-02 11:00:00 - second\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(firstFile, FileTime.fromMillis(0));
+        realLogService.createFilteredLogFile("2025-03-02");
+
+        assertFalse(Files.exists(firstFile));
+        assertThrows(NotFoundException.class, () -> jobs.getFile(first));
+        assertEquals("EXPIRED", jobs.getStatus(first));
+        String second = jobs.submit("2025-03-02");
+        assertNotEquals(first, second);
+        awaitStatus(second, "READY");
+        assertTrue(Files.readString(jobs.getFile(second)).contains("second"));
+    }
+
+    @Test
+    void submit_ShouldRejectInvalidDate() {
+        jobs = new LogExportJobs(logService, 1, 1, Duration.ofMinutes(30));
+
+        assertThrows(BadRequestException.class, () -> jobs.submit("yesterday"));
+    }
+
+    private File exportFile(String name) throws IOException {
+        return Files.writeString(tempDir.resolve(name + ".log"), "line\n").toFile();
+    }
+
+    private void awaitInvocation() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mockingDetails(logService).getInvocations().isEmpty()
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitStatus(String fileId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!status.equals(jobs.getStatus(fileId)) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(status, jobs.getStatus(fileId));
+    }
+}
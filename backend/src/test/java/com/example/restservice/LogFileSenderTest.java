@@ -0,0 +1,175 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.service.LogFileSender;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LogFileSenderTest {
+    private static final String CONTENT = "2025-03-02 10:00:00 - first\n";
+
+    private final LogFileSender sender = new LogFileSender();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(tempDir.resolve("logs-2025-03-02-abc.log"), CONTENT,
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void send_ShouldWriteWholeFile() throws IOException {
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("\"logs-2025-03-02-abc.log\"", response.getHeader("ETag"));
+        assertEquals("attachment; filename=\"logs.log\"",
+                response.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void send_ShouldWriteRequestedRange() throws IOException {
+        request.addHeader("Range", "bytes=11-18");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("10:00:00", response.getContentAsString());
+        assertEquals("bytes 11-18/" + CONTENT.length(), response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void send_ShouldResumeFromOpenEndedRange() throws IOException {
+        request.addHeader("Range", "bytes=22-");
+        request.addHeader("If-Range", "\"logs-2025-03-02-abc.log\"");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("first\n", response.getContentAsString());
+    }
+
+    @Test
+    void send_ShouldIgnoreRange_WhenIfRangeNamesAnotherVersion() throws IOException {
+        request.addHeader("Range", "bytes=22-");
+        request.addHeader("If-Range", "\"logs-2025-03-02-old.log\"");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void send_ShouldRejectRangePastTheEnd() throws IOException {
+        request.addHeader("Range", "bytes=500-");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */" + CONTENT.length(), response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void send_ShouldAnswerNotModified_WhenETagMatches() throws IOException {
+        request.addHeader("If-None-Match", "\"logs-2025-03-02-abc.log\"");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void send_ShouldMarkGzipAsContentEncodingOrAttachment() throws IOException {
+        sender.send(file, "logs", LogFileSender.Delivery.GZIP_ENCODED, request, response);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("text/plain", response.getContentType());
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+
+        MockHttpServletResponse archive = new MockHttpServletResponse();
+        sender.send(file, "logs", LogFileSender.Delivery.GZIP_FILE, request, archive);
+
+        assertNull(archive.getHeader("Content-Encoding"));
+        assertEquals("application/gzip", archive.getContentType());
+        assertEquals("attachment; filename=\"logs.log.gz\"",
+                archive.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void negotiate_ShouldPreferFormatOverAcceptEncoding() {
+        assertEquals(LogFileSender.Delivery.PLAIN, sender.negotiate(null, request));
+
+        request.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        assertEquals(LogFileSender.Delivery.GZIP_ENCODED, sender.negotiate(null, request));
+        assertEquals(LogFileSender.Delivery.GZIP_FILE, sender.negotiate("gz", request));
+        assertEquals(LogFileSender.Delivery.PLAIN, sender.negotiate("log", request));
+        assertThrows(BadRequestException.class, () -> sender.negotiate("zip", request));
+    }
+
+    @Test
+    void negotiate_ShouldHonourRefusedGzip() {
+        request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+
+        assertEquals(LogFileSender.Delivery.PLAIN, sender.negotiate(null, request));
+    }
+
+    @Test
+    void send_ShouldHandLargeBodiesToSendfile() throws IOException {
+        Files.writeString(file, CONTENT.repeat(4096), StandardCharsets.UTF_8);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=100-");
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("", response.getContentAsString());
+        assertEquals(file.toAbsolutePath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(100L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) CONTENT.length() * 4096,
+                request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void send_ShouldWriteSmallBodiesDirectly_EvenWithSendfile() throws IOException {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response);
+
+        assertEquals(CONTENT, response.getContentAsString());
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    void send_ShouldFailBeforeWritingHeaders_WhenTheExportIsGone() throws IOException {
+        Files.delete(file);
+
+        assertThrows(NoSuchFileException.class, () ->
+                sender.send(file, "logs", LogFileSender.Delivery.PLAIN, request, response));
+        assertFalse(response.isCommitted());
+        assertNull(response.getHeader("Content-Length"));
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.model.LogEntry;
+import com.example.restservice.model.LogSearchQuery;
+import com.example.restservice.model.LogSearchResult;
+import com.example.restservice.service.LogService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSearchTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 2, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void search_ShouldFilterByLevelLoggerAndTerms() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-02 10:00:00 INFO  c.e.r.aspect.LoggingAspect - Вызов метода: SongService.getSongs()
+                2025-03-02 10:00:01 ERROR c.e.r.aspect.LoggingAspect - Ошибка в методе: SongService.save()
+                java.lang.IllegalStateException: duplicate title
+                \tat Example.run(Example.java:1)
+                2025-03-02 10:00:02 ERROR o.h.engine.jdbc.spi.SqlExceptionHelper - duplicate key value
+                2025-03-02 10:00:03 INFO  c.e.r.service.LogService - export finished
+                """);
+
+        List<LogEntry> errors = search(logService, "error", "LoggingAspect", null, null);
+        assertEquals(1, errors.size());
+        assertEquals("2025-03-02 10:00:01", errors.get(0).getTimestamp());
+        assertEquals("c.e.r.aspect.LoggingAspect", errors.get(0).getLogger());
+        assertTrue(errors.get(0).getMessage().endsWith("at Example.run(Example.java:1)"));
+
+        assertEquals(2, search(logService, null, null, "Duplicate", null).size());
+        assertEquals(1, search(logService, "ERROR", null, "duplicate title", null).size());
+        assertEquals(0, search(logService, "WARN", null, null, null).size());
+        assertEquals(1, search(logService, null, null, "вызов", null).size());
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsAndLinesWithoutLevel() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-02 10:00:00 - Executing: SongService.getSongsByArtist(..)
+                2025-03-02 10:00:01 - Executing: UserService.getUsers(..)
+                """);
+
+        List<LogEntry> entries = search(logService, null, null, null, "songservice.getsongs");
+
+        assertEquals(1, entries.size());
+        assertNull(entries.get(0).getLevel());
+        assertEquals("Executing: SongService.getSongsByArtist(..)", entries.get(0).getMessage());
+        assertEquals(0, search(logService, "INFO", null, null, null).size());
+    }
+
+    @Test
+    void search_ShouldOnlyReadBlocksThatCanMatch() throws IOException {
+        LogService logService = logServiceFor(haystack());
+
+        LogSearchResult result = logService.search(query(null, null, "needle", null, 10));
+
+        assertEquals(1, result.getEntries().size());
+        assertEquals("2025-03-02 03:25:45", result.getEntries().get(0).getTimestamp());
+        assertTrue(result.getBlocksTotal() > 5);
+        // The block holding the match plus the still open tail of the active file
+        assertTrue(result.getBlocksScanned() <= 2);
+    }
+
+    @Test
+    void search_ShouldNarrowSubstringsByTheirWholeWords() throws IOException {
+        LogService logService = logServiceFor(haystack());
+
+        LogSearchResult words = logService.search(query(null, null, null, "- NEEDLE fou", 10));
+        LogSearchResult fragment = logService.search(query(null, null, null, "eedle fou", 10));
+
+        assertEquals(1, words.getEntries().size());
+        assertTrue(words.getBlocksScanned() <= 2);
+        assertEquals(1, fragment.getEntries().size());
+        assertEquals(fragment.getBlocksTotal(), fragment.getBlocksScanned());
+    }
+
+    @Test
+    void search_ShouldKeepTheIndexesOfEveryRetainedDayInMemory() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "2025-03-02 10:00:00 INFO  c.e.r.Worker - day 0\n",
+                StandardCharsets.UTF_8);
+        for (int day = 1; day <= 20; day++) {
+            LocalDateTime date = DAY.minusDays(day);
+            Files.writeString(tempDir.resolve("app." + date.toLocalDate() + ".log"),
+                    date.toLocalDate() + " 10:00:00 INFO  c.e.r.Worker - day " + day + "\n",
+                    StandardCharsets.UTF_8);
+        }
+        LogSearchQuery query = new LogSearchQuery(DAY.minusDays(20), DAY.plusDays(1), null, null,
+                "day", null, 100);
+        Path rolledIndex = tempDir.resolve(".search-index/app.2025-02-10.log.idx");
+        LogService cached = logServiceFor(log, Long.MAX_VALUE);
+        LogService uncached = logServiceFor(log, 1);
+
+        assertEquals(21, cached.search(query).getEntries().size());
+        assertEquals(21, uncached.search(query).getEntries().size());
+        Files.delete(rolledIndex);
+        assertEquals(21, cached.search(query).getEntries().size());
+        // Served from memory, so the deleted index file was not rebuilt
+        assertFalse(Files.exists(rolledIndex));
+        assertEquals(21, uncached.search(query).getEntries().size());
+        assertTrue(Files.exists(rolledIndex));
+    }
+
+    @Test
+    void search_ShouldReuseThePersistedIndexAndPickUpAppends() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, "2025-03-02 10:00:00 INFO  c.e.r.Worker - first\n",
+                StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("app.2025-03-01.log"),
+                "2025-03-01 10:00:00 WARN  c.e.r.Worker - rolled first\n", StandardCharsets.UTF_8);
+        LogSearchQuery query = new LogSearchQuery(DAY.minusDays(1), DAY.plusDays(1), null, null,
+                "first", null, 10);
+
+        assertEquals(2, logServiceFor(log).search(query).getEntries().size());
+        assertTrue(Files.exists(tempDir.resolve(".search-index/app.2025-03-01.log.idx")));
+
+        Files.writeString(log, "2025-03-02 11:00:00 INFO  c.e.r.Worker - first again\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        List<LogEntry> entries = logServiceFor(log).search(query).getEntries();
+
+        assertEquals(3, entries.size());
+        assertEquals("rolled first", entries.get(0).getMessage());
+        assertEquals("first again", entries.get(2).getMessage());
+    }
+
+    @Test
+    void search_ShouldDropIndexesOfDeletedLogs() throws IOException {
+        Path rolled = tempDir.resolve("app.2025-03-01.log");
+        Files.writeString(rolled, "2025-03-01 10:00:00 INFO  c.e.r.Worker - old\n",
+                StandardCharsets.UTF_8);
+        LogService logService = logServiceFor("2025-03-02 10:00:00 INFO  c.e.r.Worker - new\n");
+        LogSearchQuery query = new LogSearchQuery(DAY.minusDays(1), DAY.plusDays(1), null, null,
+                null, null, 10);
+        assertEquals(2, logService.search(query).getEntries().size());
+
+        Files.delete(rolled);
+
+        assertEquals(1, logService.search(query).getEntries().size());
+        assertFalse(Files.exists(tempDir.resolve(".search-index/app.2025-03-01.log.idx")));
+    }
+
+    @Test
+    void search_ShouldStopAtTheLimit() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-02 10:00:00 INFO  c.e.r.Worker - one
+                2025-03-02 10:00:01 INFO  c.e.r.Worker - two
+                2025-03-02 10:00:02 INFO  c.e.r.Worker - three
+                """);
+
+        LogSearchResult result = logService.search(query(null, null, null, null, 2));
+
+        assertEquals(2, result.getEntries().size());
+        assertTrue(result.isTruncated());
+    }
+
+    @Test
+    void search_ShouldRejectInvalidQueries() throws IOException {
+        LogService logService = logServiceFor("2025-03-02 10:00:00 INFO  c.e.r.Worker - one\n");
+
+        assertThrows(BadRequestException.class,
+                () -> logService.search(query("LOUD", null, null, null, 10)));
+        assertThrows(BadRequestException.class,
+                () -> logService.search(query(null, null, null, null, 0)));
+        assertThrows(BadRequestException.class, () -> logService.search(
+                new LogSearchQuery(DAY, DAY, null, null, null, null, 10)));
+    }
+
+    private List<LogEntry> search(LogService logService, String level, String logger,
+                                  String terms, String contains) throws IOException {
+        return logService.search(query(level, logger, terms, contains, 100)).getEntries();
+    }
+
+    private static LogSearchQuery query(String level, String logger, String terms,
+                                        String contains, int limit) {
+        return new LogSearchQuery(DAY, DAY.plusDays(1), level, logger, terms, contains, limit);
+    }
+
+    /**
+     * Writes 20,000 entries, one a second, of which only 03:25:45 says "needle found".
+     */
+    private Path haystack() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        try (BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            for (int second = 0; second < 20_000; second++) {
+                String message = second == 12_345 ? "needle found" : "routine work " + "x".repeat(80);
+                writer.write(String.format("2025-03-02 %02d:%02d:%02d INFO  c.e.r.Worker - %s%n",
+                        second / 3600, second / 60 % 60, second % 60, message));
+            }
+        }
+        return log;
+    }
+
+    private LogService logServiceFor(String content) throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, content, StandardCharsets.UTF_8);
+        return logServiceFor(log);
+    }
+
+    private LogService logServiceFor(Path log) {
+        return logServiceFor(log, Long.MAX_VALUE);
+    }
+
+    private LogService logServiceFor(Path log, long indexCacheBytes) {
+        return new LogService(log.toString(), tempDir.resolve("exports").toString(),
+                Long.MAX_VALUE, Duration.ZERO, 1, "", indexCacheBytes);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.service.LogFormat;
+import com.example.restservice.service.LogService;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void createFilteredLogFile_ShouldKeepOnlyLinesOfThatDate() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-01 10:00:00 - first
+                2025-03-02 10:00:00 - second
+                2025-03-02 11:00:00 - third
+                2025-03-03 10:00:00 - fourth
+                """);
+
+        assertEquals("2025-03-02 10:00:00 - second\n2025-03-02 11:00:00 - third\n",
+                read(logService.createFilteredLogFile("2025-03-02")));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldHandleLinesLongerThanTheBuffer() throws IOException {
+        String longMatch = "2025-03-02 10:00:00 - " + "x".repeat(200_000);
+        String longOther = "2025-03-01 10:00:00 - " + "y".repeat(200_000);
+        LogService logService = logServiceFor(longOther + "\n" + longMatch + "\n"
+                + "2025-03-02 12:00:00 - short");
+
+        assertEquals(longMatch + "\n2025-03-02 12:00:00 - short\n",
+                read(logService.createFilteredLogFile("2025-03-02")));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldReadTheRolledFileOfThatDay() throws IOException {
+        Files.writeString(tempDir.resolve("app.2025-03-01.log"),
+                "2025-03-01 23:59:59 - rolled\n", StandardCharsets.UTF_8);
+        LogService logService = logServiceFor("2025-03-02 00:00:01 - active\n");
+
+        assertEquals("2025-03-01 23:59:59 - rolled\n",
+                read(logService.createFilteredLogFile("2025-03-01")));
+        assertEquals("2025-03-02 00:00:01 - active\n",
+                read(logService.createFilteredLogFile("2025-03-02")));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldReturnTimeRangeWithContinuationLines() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-02 09:59:59 - before
+                2025-03-02 10:00:00 - failed
+                java.lang.IllegalStateException: boom
+                \tat Example.run(Example.java:1)
+                2025-03-02 10:30:00 - inside
+                2025-03-02 11:00:00 - after
+                """);
+
+        assertEquals("""
+                2025-03-02 10:00:00 - failed
+                java.lang.IllegalStateException: boom
+                \tat Example.run(Example.java:1)
+                2025-03-02 10:30:00 - inside
+                """, read(logService.createFilteredLogFile(
+                        LocalDateTime.of(2025, 3, 2, 10, 0), LocalDateTime.of(2025, 3, 2, 11, 0))));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldSeeLinesAppendedAfterIndexing() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int second = 0; second < 3600; second++) {
+            log.append(String.format("2025-03-02 10:%02d:%02d - %s%n",
+                    second / 60, second % 60, "z".repeat(200)));
+        }
+        LogService logService = logServiceFor(log.toString());
+        LocalDateTime from = LocalDateTime.of(2025, 3, 2, 10, 59, 59);
+
+        assertEquals(1, lines(logService.createFilteredLogFile(from, from.plusHours(1))));
+
+        Files.writeString(tempDir.resolve("app.log"), "2025-03-02 11:00:00 - appended\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(2, lines(logService.createFilteredLogFile(from, from.plusHours(1))));
+        assertEquals(3601, lines(logService.createFilteredLogFile("2025-03-02")));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldMatchSequentialScan_WhenScannedInParallel()
+            throws IOException {
+        Path log = tempDir.resolve("app.log");
+        try (BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            for (int second = 0; second < 86_400; second += 2) {
+                writer.write(String.format("2025-03-02 %02d:%02d:%02d - entry %s%n",
+                        second / 3600, second / 60 % 60, second % 60, "p".repeat(150)));
+                if (second % 14 == 0) {
+                    // Stack traces long enough to straddle chunk boundaries
+                    for (int frame = 0; frame < 40; frame++) {
+                        writer.write("\tat Example.frame" + frame + "(Example.java:1)\n");
+                    }
+                }
+            }
+            writer.write("2025-03-03 00:00:00 - unterminated");
+        }
+        LogService sequential = logServiceFor(log, "sequential", 1);
+        LogService parallel = logServiceFor(log, "parallel", 4);
+        LocalDateTime from = LocalDateTime.of(2025, 3, 2, 6, 30, 1);
+        try {
+            assertEquals(read(sequential.createFilteredLogFile("2025-03-02")),
+                    read(parallel.createFilteredLogFile("2025-03-02")));
+            assertEquals(read(sequential.createFilteredLogFile(from, from.plusHours(16))),
+                    read(parallel.createFilteredLogFile(from, from.plusHours(16))));
+            assertEquals("2025-03-03 00:00:00 - unterminated\n",
+                    read(parallel.createFilteredLogFile("2025-03-03")));
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldReuseTheExportUntilItsLogsChange() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-01 10:00:00 - first
+                2025-03-02 10:00:00 - second
+                """);
+        File closedDay = logService.createFilteredLogFile("2025-03-01");
+        File openDay = logService.createFilteredLogFile("2025-03-02");
+
+        assertEquals(closedDay, logService.createFilteredLogFile("2025-03-01"));
+        assertEquals(openDay, logService.createFilteredLogFile("2025-03-02"));
+
+        Files.writeString(tempDir.resolve("app.log"), "2025-03-02 11:00:00 - appended\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        File updated = logService.createFilteredLogFile("2025-03-02");
+
+        assertNotEquals(openDay, updated);
+        assertFalse(openDay.exists());
+        assertEquals(2, lines(updated));
+        assertEquals(closedDay, logService.createFilteredLogFile("2025-03-01"));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldCompressWhileFiltering() throws IOException {
+        LogService logService = logServiceFor("""
+                2025-03-01 10:00:00 - first
+                2025-03-02 10:00:00 - second
+                """);
+
+        File gzip = logService.createFilteredLogFile("2025-03-01", LogFormat.GZIP);
+
+        assertTrue(gzip.getName().endsWith(".log.gz"));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip.toPath()))) {
+            assertEquals("2025-03-01 10:00:00 - first\n",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(gzip, logService.createFilteredLogFile("2025-03-01", LogFormat.GZIP));
+        assertNotEquals(gzip, logService.createFilteredLogFile("2025-03-01"));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldEvictLeastRecentlyUsedExports() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, """
+                2025-03-01 10:00:00 - first
+                2025-03-02 10:00:00 - second
+                2025-03-03 10:00:00 - third
+                """, StandardCharsets.UTF_8);
+        LogService logService = new LogService(log.toString(),
+                tempDir.resolve("exports").toString(), 60, Duration.ZERO, 1, "", Long.MAX_VALUE);
+
+        File first = logService.createFilteredLogFile("2025-03-01");
+        File second = logService.createFilteredLogFile("2025-03-02");
+        Files.setLastModifiedTime(first.toPath(), FileTime.fromMillis(0));
+        File third = logService.createFilteredLogFile("2025-03-03");
+
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+        assertTrue(third.exists());
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldKeepExportsHandedOutWithinTheGrace() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, """
+                2025-03-01 10:00:00 - first
+                2025-03-02 10:00:00 - second
+                2025-03-03 10:00:00 - third
+                """, StandardCharsets.UTF_8);
+        LogService logService = new LogService(log.toString(),
+                tempDir.resolve("exports").toString(), 60, Duration.ofHours(1), 1, "",
+                Long.MAX_VALUE);
+
+        File first = logService.createFilteredLogFile("2025-03-01");
+        File second = logService.createFilteredLogFile("2025-03-02");
+        logService.createFilteredLogFile("2025-03-03");
+
+        // Over max-bytes, but both may still be opened by a download that was handed them
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+
+        Files.setLastModifiedTime(first.toPath(), FileTime.fromMillis(0));
+        logService.createFilteredLogFile("2025-03-03", LogFormat.GZIP);
+
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldThrowNotFound_WhenNoLineMatches() throws IOException {
+        LogService logService = logServiceFor("2025-03-01 10:00:00 - first\n");
+
+        assertThrows(NotFoundException.class, () -> logService.createFilteredLogFile("2025-03-02"));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldThrowNotFound_WhenLogIsMissing() {
+        LogService logService = logServiceFor(tempDir.resolve("missing.log"));
+
+        assertThrows(NotFoundException.class, () -> logService.createFilteredLogFile("2025-03-02"));
+    }
+
+    @Test
+    void createFilteredLogFile_ShouldRejectInvalidDatesAndRanges() throws IOException {
+        LogService logService = logServiceFor("2025-03-01 10:00:00 - first\n");
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+        assertThrows(BadRequestException.class, () -> logService.createFilteredLogFile("2025-3"));
+        assertThrows(BadRequestException.class,
+                () -> logService.createFilteredLogFile(time, time));
+    }
+
+    private LogService logServiceFor(String content) throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.writeString(log, content, StandardCharsets.UTF_8);
+        return logServiceFor(log);
+    }
+
+    private LogService logServiceFor(Path log) {
+        return logServiceFor(log, "exports", 1);
+    }
+
+    private LogService logServiceFor(Path log, String exports, int parallelism) {
+        return new LogService(log.toString(), tempDir.resolve(exports).toString(),
+                Long.MAX_VALUE, Duration.ZERO, parallelism, "", Long.MAX_VALUE);
+    }
+
+    private static long lines(File file) throws IOException {
+        return read(file).lines().count();
+    }
+
+    private static String read(File file) throws IOException {
+        try {
+            return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.exception.TooManyRequestsException;
+import com.example.restservice.service.LogTail;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogTailTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path tempDir;
+
+    private LogTail logTail;
+
+    @AfterEach
+    void tearDown() {
+        if (logTail != null) {
+            logTail.shutdown();
+        }
+    }
+
+    @Test
+    void subscribe_ShouldDeliverOnlyLinesAppendedAfterSubscribing() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        append(log, "2025-03-02 10:00:00 INFO  c.e.r.Worker - before\n");
+        logTail = logTail(log, 100, 4);
+
+        try (LogTail.Subscription subscription = logTail.subscribe(null, null, null, null)) {
+            append(log, "2025-03-02 10:00:01 INFO  c.e.r.Worker - after\n");
+            append(log, "2025-03-02 10:00:02 INFO  c.e.r.Worker - split ");
+            append(log, "line\n");
+
+            assertEquals(List.of(
+                    "2025-03-02 10:00:01 INFO  c.e.r.Worker - after",
+                    "2025-03-02 10:00:02 INFO  c.e.r.Worker - split line"
+            ), take(subscription, 2));
+        }
+    }
+
+    @Test
+    void subscribe_ShouldFilterEntriesWithTheirContinuationLines() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        logTail = logTail(log, 100, 4);
+
+        try (LogTail.Subscription errors = logTail.subscribe("error", null, null, null);
+             LogTail.Subscription all = logTail.subscribe(null, null, null, null)) {
+            append(log, """
+                    2025-03-02 10:00:00 INFO  c.e.r.Worker - fine
+                    2025-03-02 10:00:01 ERROR c.e.r.Worker - broken
+                    \tat Example.run(Example.java:1)
+                    2025-03-02 10:00:02 INFO  c.e.r.Worker - fine again
+                    """);
+
+            assertEquals(List.of(
+                    "2025-03-02 10:00:01 ERROR c.e.r.Worker - broken",
+                    "\tat Example.run(Example.java:1)"
+            ), take(errors, 2));
+            assertEquals(4, take(all, 4).size());
+        }
+    }
+
+    @Test
+    void subscribe_ShouldReadRolledFileToTheEndBeforeFollowingTheNewOne() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        append(log, "2025-03-01 23:59:58 INFO  c.e.r.Worker - old\n");
+        logTail = logTail(log, 100, 4);
+
+        try (LogTail.Subscription subscription = logTail.subscribe(null, null, null, null)) {
+            append(log, "2025-03-01 23:59:59 INFO  c.e.r.Worker - last before rollover\n");
+            Files.move(log, tempDir.resolve("app.2025-03-01.log"));
+            append(log, "2025-03-02 00:00:00 INFO  c.e.r.Worker - first after rollover\n");
+
+            assertEquals(List.of(
+                    "2025-03-01 23:59:59 INFO  c.e.r.Worker - last before rollover",
+                    "2025-03-02 00:00:00 INFO  c.e.r.Worker - first after rollover"
+            ), take(subscription, 2));
+        }
+    }
+
+    @Test
+    void subscribe_ShouldDropAndCountLinesASlowSubscriberHasNoRoomFor() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        logTail = logTail(log, 2, 4);
+
+        try (LogTail.Subscription subscription = logTail.subscribe(null, null, null, null)) {
+            append(log, """
+                    2025-03-02 10:00:00 INFO  c.e.r.Worker - one
+                    2025-03-02 10:00:01 INFO  c.e.r.Worker - two
+                    2025-03-02 10:00:02 INFO  c.e.r.Worker - three
+                    2025-03-02 10:00:03 INFO  c.e.r.Worker - four
+                    """);
+
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            long dropped = 0;
+            while (dropped < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                dropped += subscription.takeDropped();
+            }
+
+            assertEquals(2, dropped);
+            List<String> lines = take(subscription, 2);
+            assertTrue(lines.get(0).endsWith("one"));
+            assertTrue(lines.get(1).endsWith("two"));
+        }
+    }
+
+    @Test
+    void subscribe_ShouldRejectUnknownLevelsAndTooManySubscribers() {
+        logTail = logTail(tempDir.resolve("app.log"), 100, 1);
+
+        assertThrows(BadRequestException.class, () -> logTail.subscribe("LOUD", null, null, null));
+        try (LogTail.Subscription subscription = logTail.subscribe(null, null, null, null)) {
+            assertThrows(TooManyRequestsException.class,
+                    () -> logTail.subscribe(null, null, null, null));
+        }
+        logTail.subscribe(null, null, null, null).close();
+    }
+
+    private static List<String> take(LogTail.Subscription subscription, int count)
+            throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (lines.size() < count && System.nanoTime() < deadline) {
+            lines.addAll(subscription.take(Duration.ofMillis(50)));
+        }
+        return lines;
+    }
+
+    private static void append(Path log, String content) throws IOException {
+        Files.writeString(log, content, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static LogTail logTail(Path log, int bufferLines, int maxSubscribers) {
+        return new LogTail(log.toString(), Duration.ofMillis(10), Duration.ofSeconds(15),
+                bufferLines, maxSubscribers);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.restservice;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.example.restservice.aspect.LoggingAspect;
+import com.example.restservice.aspect.MethodLogQueue;
+import com.example.restservice.aspect.MethodLogStats;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoggingAspectTest {
+    private final Logger aspectLogger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+    private final RecordingAppender appender = new RecordingAppender();
+    private MethodLogQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        aspectLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        appender.release.countDown();
+        queue.close();
+        aspectLogger.detachAppender(appender);
+    }
+
+    @Test
+    void log_ShouldRenderCappedArgumentsAndResultOffTheCallingThread() throws Throwable {
+        queue = new MethodLogQueue(16);
+        LoggingAspect aspect = new LoggingAspect(queue, LoggingAspect.Mode.FULL, 1, 1, 1, 40);
+        List<Integer> songs = IntStream.range(0, 10_000).boxed().toList();
+
+        Object result = aspect.logService(joinPoint("SongService.getSongs(..)",
+                new Object[] {"Adele", 7}, songs));
+
+        assertThat(result).isSameAs(songs);
+        String message = appender.awaitMessages(1).get(0);
+        assertThat(message).startsWith("Метод SongService.getSongs(..) выполнен за ");
+        assertThat(message).contains("Аргументы: [Adele, 7]");
+        assertThat(message).contains("Результат: [0, 1, 2, 3").endsWith(", … 10000 total]");
+        assertThat(message.length()).isLessThan(200);
+        assertThat(appender.threads).containsOnly("method-log-writer");
+    }
+
+    @Test
+    void log_ShouldKeepOnlyTimingsWhenAskedAndSkipUnsampledCalls() throws Throwable {
+        queue = new MethodLogQueue(16);
+        LoggingAspect aspect = new LoggingAspect(queue, LoggingAspect.Mode.TIMING, 1, 0, 0, 40);
+
+        aspect.logService(joinPoint("SongService.getSongs(..)", new Object[0], "skipped"));
+        aspect.logController(joinPoint("SongController.getSongs(..)", new Object[0], "kept"));
+
+        List<String> messages = appender.awaitMessages(1);
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0)).matches("Метод SongController.getSongs\\(\\.\\.\\) "
+                + "выполнен за \\d+ мкс");
+        assertThat(queue.stats().getAccepted()).isEqualTo(1);
+    }
+
+    @Test
+    void log_ShouldAlwaysLogFailures() throws Throwable {
+        queue = new MethodLogQueue(16);
+        LoggingAspect aspect = new LoggingAspect(queue, LoggingAspect.Mode.FULL, 0, 0, 0, 40);
+        ProceedingJoinPoint joinPoint = joinPoint("SongService.save(..)", new Object[0], null);
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("duplicate title"));
+
+        assertThatThrownBy(() -> aspect.logService(joinPoint))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(appender.awaitMessages(1).get(0))
+                .startsWith("Ошибка в методе: SongService.save(..) через ")
+                .endsWith("ошибка: duplicate title");
+    }
+
+    @Test
+    void offer_ShouldDropAndCountRecordsWhileTheWriterIsBehind() throws Throwable {
+        queue = new MethodLogQueue(2);
+        appender.blocking = true;
+        queue.offer("first", 1, null, null, null);
+        assertThat(appender.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(queue.offer("second", 1, null, null, null)).isTrue();
+        assertThat(queue.offer("third", 1, null, null, null)).isTrue();
+        assertThat(queue.offer("fourth", 1, null, null, null)).isFalse();
+        appender.release.countDown();
+
+        appender.awaitMessages(3);
+        MethodLogStats stats = queue.stats();
+        assertThat(stats.getCapacity()).isEqualTo(2);
+        assertThat(stats.getAccepted()).isEqualTo(3);
+        assertThat(stats.getDropped()).isEqualTo(1);
+        assertThat(stats.getWritten()).isEqualTo(3);
+        assertThat(stats.getQueued()).isZero();
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method, Object[] args, Object result)
+            throws Throwable {
+        Signature signature = mock(Signature.class);
+        when(signature.toShortString()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocking;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (blocking) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(event.getFormattedMessage());
+            threads.add(event.getThreadName());
+        }
+
+        private List<String> awaitMessages(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (messages.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.restservice;
+
+import com.example.restservice.aspect.LatencyHistogram;
+import com.example.restservice.aspect.MethodTiming;
+import com.example.restservice.aspect.MethodTimings;
+import com.example.restservice.aspect.TimingAspect;
+import com.example.restservice.controller.SongController;
+import com.example.restservice.repository.SongRepository;
+import com.example.restservice.service.SongService;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MethodTimingsTest {
+
+    @Test
+    void histogram_ShouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(5_000_500);
+        assertThat((double) snapshot.valueAt(50)).isCloseTo(5_000_000, within(160_000.0));
+        assertThat((double) snapshot.valueAt(99)).isCloseTo(9_900_000, within(310_000.0));
+        assertThat(snapshot.valueAt(99)).isGreaterThanOrEqualTo(9_900_000);
+        assertThat((double) snapshot.getMaxNanos()).isCloseTo(10_000_000, within(310_000.0));
+        assertThat(snapshot.countAtOrBelow(1_000_000)).isBetween(960L, 1000L);
+    }
+
+    @Test
+    void histogram_ShouldKeepSmallValuesExactAndClampHugeOnes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(7);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.valueAt(1)).isZero();
+        assertThat(snapshot.valueAt(50)).isEqualTo(7);
+        assertThat(snapshot.getMaxNanos()).isEqualTo((1L << 40) - 1);
+    }
+
+    @Test
+    void timingAspect_ShouldAddRepositoryTimeToTheEnclosingControllerCall() throws Throwable {
+        MethodTimings timings = new MethodTimings();
+        TimingAspect aspect = new TimingAspect(timings);
+        ProceedingJoinPoint repositoryCall = joinPoint(
+                SongRepository.class.getMethod("findAll"), () -> {
+                    Thread.sleep(20);
+                    return List.of();
+                });
+        ProceedingJoinPoint serviceCall = joinPoint(
+                SongService.class.getMethod("getAllSongs"),
+                () -> aspect.timeRepository(repositoryCall));
+        Method handler = SongController.class.getMethod("streamSongs");
+        ProceedingJoinPoint controllerCall = joinPoint(handler,
+                () -> aspect.timeService(serviceCall));
+
+        aspect.timeController(controllerCall);
+        aspect.timeRepository(repositoryCall); // outside of a request
+
+        List<MethodTiming> result = timings.timings();
+        assertThat(result).extracting(MethodTiming::getLayer)
+                .containsExactly("controller", "service", "repository", "database");
+        MethodTiming database = result.get(3);
+        assertThat(database.getMethod()).isEqualTo("SongController.streamSongs()");
+        assertThat(database.getCount()).isEqualTo(1);
+        assertThat(database.getMaxMicros()).isGreaterThanOrEqualTo(20_000);
+        assertThat(result.get(2).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void prometheus_ShouldRenderCumulativeHistograms() throws Exception {
+        MethodTimings timings = new MethodTimings();
+        Method method = SongService.class.getMethod("getAllSongs");
+        LatencyHistogram histogram = timings.histogram(MethodTimings.Layer.SERVICE, method);
+        histogram.record(50_000);
+        histogram.record(3_000_000);
+        histogram.record(20_000_000_000L);
+
+        String text = timings.prometheus();
+
+        String series = "app_method_duration_seconds_bucket{layer=\"service\","
+                + "method=\"SongService.getAllSongs()\",le=";
+        assertThat(text).contains("# TYPE app_method_duration_seconds histogram\n");
+        assertThat(text).contains(series + "\"0.0001\"} 1\n");
+        assertThat(text).contains(series + "\"0.005\"} 2\n");
+        assertThat(text).contains(series + "\"10\"} 2\n");
+        assertThat(text).contains(series + "\"+Inf\"} 3\n");
+        assertThat(text).contains("app_method_duration_seconds_count{layer=\"service\","
+                + "method=\"SongService.getAllSongs()\"} 3\n");
+        assertThat(text).contains("# TYPE app_request_database_seconds histogram\n");
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object run() throws Throwable;
+    }
+
+    private static ProceedingJoinPoint joinPoint(Method method, Call call) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenAnswer(invocation -> call.run());
+        return joinPoint;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.restservice;
+
+import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistUpdateRequest;
+import com.example.restservice.model.Song;
+import com.example.restservice.model.User;
+import com.example.restservice.repository.PlaylistSongRepository;
+import com.example.restservice.service.PlaylistService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PlaylistMembershipTest {
+    private static final int SIZE = 300;
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private PlaylistSongRepository playlistSongRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long playlistId;
+    private List<Long> songIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        songIds = new ArrayList<>();
+        for (int i = 0; i <= SIZE; i++) {
+            Song song = new Song(null, "Member " + i, "Artist " + i % 5, new ArrayList<>());
+            entityManager.persist(song);
+            songIds.add(song.getId());
+        }
+        Playlist playlist = new Playlist(null, "Large", null, new ArrayList<>());
+        entityManager.persist(playlist);
+        playlistId = playlist.getId();
+        playlistService.addSongsToPlaylist(playlistId, songIds.subList(0, SIZE));
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void addSongsToPlaylist_ShouldInsertOnlySongsNotYetInThePlaylist() {
+        Long extra = songIds.get(SIZE);
+
+        playlistService.addSongsToPlaylist(playlistId, List.of(songIds.get(7), extra, extra));
+        playlistService.addSongsToPlaylist(playlistId, List.of(extra));
+        entityManager.flush();
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        List<Long> order = songOrder();
+        assertEquals(SIZE + 1, order.size());
+        assertEquals(extra, order.get(SIZE));
+    }
+
+    @Test
+    void removeSongsFromPlaylist_ShouldDeleteOnlyTheirRows() {
+        playlistService.removeSongsFromPlaylist(playlistId, List.of(songIds.get(3), 999_999L));
+
+        // the playlist lookup and one DELETE
+        assertEquals(2, statistics.getPrepareStatementCount());
+        List<Long> expected = new ArrayList<>(songIds.subList(0, SIZE));
+        expected.remove(songIds.get(3));
+        assertEquals(expected, songOrder());
+    }
+
+    @Test
+    void moveSong_ShouldUpdateOnlyTheMovedRow() {
+        Long last = songIds.get(SIZE - 1);
+
+        playlistService.moveSong(playlistId, last, 0);
+        entityManager.flush();
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(last, songOrder().get(0));
+    }
+
+    @Test
+    void moveSong_ShouldKeepTheOrderWhenAGapRunsOut() {
+        List<Long> expected = new ArrayList<>(songIds.subList(0, SIZE));
+        for (int i = 0; i < 15; i++) {
+            Long song = expected.remove(expected.size() - 1);
+            expected.add(1, song);
+            playlistService.moveSong(playlistId, song, 1);
+        }
+
+        assertEquals(expected, songOrder());
+    }
+
+    @Test
+    void updatePlaylist_ShouldWriteOnlyTheDifference() {
+        List<Long> wanted = new ArrayList<>(songIds.subList(0, SIZE));
+        wanted.remove(songIds.get(10));
+        wanted.add(150, songIds.get(SIZE));
+
+        playlistService.updatePlaylist(playlistId, new PlaylistUpdateRequest(null, wanted));
+        entityManager.flush();
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(wanted, songOrder());
+    }
+
+    @Test
+    void updatePlaylist_ShouldMoveOnlySongsThatChangedPlace() {
+        List<Long> wanted = new ArrayList<>(songIds.subList(0, SIZE));
+        wanted.add(20, wanted.remove(200));
+        wanted.add(wanted.remove(5));
+
+        playlistService.updatePlaylist(playlistId, new PlaylistUpdateRequest(null, wanted));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getEntityUpdateCount());
+        assertEquals(wanted, songOrder());
+    }
+
+    @Test
+    void songs_ShouldBeReadOnly() throws Exception {
+        Playlist bound = objectMapper.readValue(
+                "{\"name\":\"Posted\",\"songs\":[{\"id\":" + songIds.get(0) + "}]}",
+                Playlist.class);
+        assertNull(bound.getSongs());
+
+        User user = new User(null, "member-owner", new ArrayList<>());
+        entityManager.persist(user);
+        Playlist posted = new Playlist(null, "Posted", null,
+                new ArrayList<>(List.of(entityManager.find(Song.class, songIds.get(0)))));
+        Long postedId = playlistService.createPlaylist(posted, user.getId()).getId();
+        assertTrue(playlistSongRepository.findByPlaylistId(postedId).isEmpty());
+
+        entityManager.find(Playlist.class, playlistId).getSongs().remove(0);
+        Exception flush = assertThrows(RuntimeException.class, () -> entityManager.flush());
+        assertTrue(flush.getMessage().contains("immutable"), flush.getMessage());
+    }
+
+    @Test
+    void deletePlaylist_ShouldDeleteItsRows() {
+        playlistService.deletePlaylist(playlistId);
+        entityManager.flush();
+
+        assertTrue(playlistSongRepository.findByPlaylistId(playlistId).isEmpty());
+    }
+
+    private List<Long> songOrder() {
+        entityManager.flush();
+        entityManager.clear();
+        List<Song> songs = entityManager.find(Playlist.class, playlistId).getSongs();
+        assertTrue(songs.stream().allMatch(song -> song.getTitle().startsWith("Member ")));
+        return songs.stream().map(Song::getId).collect(Collectors.toList());
+    }
+}
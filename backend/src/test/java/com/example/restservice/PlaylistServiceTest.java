@@ -1,25 +1,33 @@
 package com.example.restservice;
 
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.KeysetPage;
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Playlist;
 import com.example.restservice.model.PlaylistDto;
+import com.example.restservice.model.PlaylistRow;
+import com.example.restservice.model.PlaylistSong;
 import com.example.restservice.model.Song;
 import com.example.restservice.model.User;
 import com.example.restservice.repository.PlaylistRepository;
+import com.example.restservice.repository.PlaylistSongRepository;
 import com.example.restservice.repository.SongRepository;
 import com.example.restservice.repository.UserRepository;
 import com.example.restservice.service.PlaylistService;
+import com.example.restservice.service.ResponseCacheService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,30 +45,41 @@ class PlaylistServiceTest {
     @Mock
     private PlaylistRepository playlistRepository;
 
+    @Mock
+    private PlaylistSongRepository playlistSongRepository;
+
     @Mock
     private SongRepository songRepository;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResponseCacheService responseCacheService;
+
     @InjectMocks
     private PlaylistService playlistService;
 
+    @Captor
+    private ArgumentCaptor<List<PlaylistSong>> savedRows;
+
     @Test
     void getAllPlaylists_ShouldReturnAllPlaylists() {
-        List<Playlist> playlists = Collections.emptyList();
-        User user = new User(1L,"test user",playlists);
-        List<Song> songs = Collections.emptyList();
-        List<Playlist> expectedPlaylists = Arrays.asList(
-                new Playlist(1L, "Playlist 1",user,songs),
-                new Playlist(2L, "Playlist 2",user,songs)
+        List<PlaylistRow> rows = Arrays.asList(
+                new PlaylistRow(1L, "Playlist 1", 1L, "test user"),
+                new PlaylistRow(2L, "Playlist 2", 1L, "test user")
         );
-        when(playlistRepository.findAll()).thenReturn(expectedPlaylists);
+        when(playlistRepository.findAllRows()).thenReturn(rows);
+        when(playlistRepository.findAllSongTitles())
+                .thenReturn(List.of(new OwnerName(2L, "Song 1")));
 
         List<PlaylistDto> result = playlistService.getAllPlaylists();
 
-       // assertEquals(expectedPlaylists, result);
-        verify(playlistRepository, times(1)).findAll();
+        assertEquals(2, result.size());
+        assertEquals("test user", result.get(0).getUsername());
+        assertEquals(List.of(), result.get(0).getSongTitles());
+        assertEquals(List.of("Song 1"), result.get(1).getSongTitles());
+        verify(playlistRepository, never()).findAll();
     }
 
     @Test
@@ -106,6 +125,7 @@ class PlaylistServiceTest {
         //assertEquals(user, result.getUser());
         verify(userRepository, times(1)).findById(userId);
         verify(playlistRepository, times(1)).save(newPlaylist);
+        verify(responseCacheService, times(1)).invalidate();
     }
 
     @Test
@@ -124,55 +144,45 @@ class PlaylistServiceTest {
     }
 
     @Test
-    @Transactional
-    void addSongsToPlaylist_ShouldAddSongs() {
+    void addSongsToPlaylist_ShouldAppendSongsAfterTheLastOne() {
         Long playlistId = 1L;
-        List<Long> songIds = Arrays.asList(1L, 2L);
+        List<Long> songIds = Arrays.asList(1L, 2L, 1L, 9L);
         List<Playlist> playlists = Collections.emptyList();
-        List<Song> songsT = Collections.emptyList();
         User user = new User(1L, "testUser",playlists);
-        Playlist playlist = new Playlist(playlistId, "Existing Playlist",user, songsT);
-        List<Song> songs = Arrays.asList(
-                new Song(1L, "Song 1", "Artist 1",playlists),
-                new Song(2L, "Song 2", "Artist 2",playlists)
-        );
+        Playlist playlist = new Playlist(playlistId, "Existing Playlist", user, new ArrayList<>());
 
         when(playlistRepository.findById(playlistId)).thenReturn(Optional.of(playlist));
-        when(songRepository.findAllById(songIds)).thenReturn(songs);
-        when(playlistRepository.save(playlist)).thenReturn(playlist);
+        when(playlistSongRepository.findSongIdsIn(playlistId, songIds)).thenReturn(List.of());
+        when(songRepository.findExistingIds(songIds)).thenReturn(List.of(1L, 2L));
+        when(playlistSongRepository.findLastPosition(playlistId)).thenReturn(2048L);
 
         Playlist result = playlistService.addSongsToPlaylist(playlistId, songIds);
 
-        assertEquals(songs, result.getSongs());
-        verify(playlistRepository, times(1)).findById(playlistId);
-        verify(songRepository, times(1)).findAllById(songIds);
-        verify(playlistRepository, times(1)).save(playlist);
+        assertEquals(playlist, result);
+        verify(playlistSongRepository).saveAllAndFlush(savedRows.capture());
+        assertEquals(List.of(1L, 2L), savedRows.getValue().stream()
+                .map(PlaylistSong::getSongId).collect(Collectors.toList()));
+        assertEquals(List.of(3072L, 4096L), savedRows.getValue().stream()
+                .map(PlaylistSong::getPosition).collect(Collectors.toList()));
+        verify(responseCacheService).invalidate();
     }
 
     @Test
-    @Transactional
-    void addSongsToPlaylist_ShouldClearExistingSongs() {
+    void addSongsToPlaylist_ShouldSkipSongsAlreadyInThePlaylist() {
         Long playlistId = 1L;
+        List<Long> songIds = List.of(1L, 2L);
         List<Playlist> playlists = Collections.emptyList();
-        List<Song> songsT = Collections.emptyList();
         User user = new User(1L, "testUser",playlists);
-        Playlist playlist = new Playlist(playlistId, "Playlist with Songs",user,songsT);
-        playlist.setSongs(List.of(new Song(3L, "Old Song", "Old Artist", playlists)));
-
-        List<Long> newSongIds = List.of(1L, 2L);
-        List<Song> newSongs = List.of(
-                new Song(1L, "New Song 1", "Artist 1",playlists),
-                new Song(2L, "New Song 2", "Artist 2",playlists)
-        );
+        Playlist playlist = new Playlist(playlistId, "Full Playlist", user, new ArrayList<>());
 
         when(playlistRepository.findById(playlistId)).thenReturn(Optional.of(playlist));
-        when(songRepository.findAllById(newSongIds)).thenReturn(newSongs);
-        when(playlistRepository.save(playlist)).thenReturn(playlist);
+        when(playlistSongRepository.findSongIdsIn(playlistId, songIds)).thenReturn(songIds);
+        when(songRepository.findExistingIds(songIds)).thenReturn(songIds);
 
-        Playlist result = playlistService.addSongsToPlaylist(playlistId, newSongIds);
+        playlistService.addSongsToPlaylist(playlistId, songIds);
 
-        assertEquals(2, result.getSongs().size());
-        assertTrue(result.getSongs().containsAll(newSongs));
+        verify(playlistSongRepository, never()).saveAllAndFlush(any());
+        verify(responseCacheService, never()).invalidate();
     }
 
     @Test
@@ -192,28 +202,28 @@ class PlaylistServiceTest {
 
         playlistService.deletePlaylist(playlistId);
 
-        assertTrue(playlist.getSongs().isEmpty());
         verify(playlistRepository, times(1)).findById(playlistId);
         verify(playlistRepository, times(1)).delete(playlist);
+        verify(responseCacheService, times(1)).invalidate();
     }
 
     @Test
-    void getPlaylistsWithSongs_ShouldReturnPlaylistsWithSongs() {
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> songsT = Collections.emptyList();
-        User user = new User(1L, "testUser",playlists);
-        List<Playlist> expectedPlaylists = Arrays.asList(
-                new Playlist(1L, "Playlist 1",user,songsT),
-                new Playlist(2L, "Playlist 2",user,songsT)
+    void getPlaylistsWithSongsPage_ShouldBatchSongTitlesAndSetCursor() {
+        List<PlaylistRow> rows = Arrays.asList(
+                new PlaylistRow(3L, "Playlist 3", 1L, "testUser"),
+                new PlaylistRow(5L, "Playlist 5", 1L, "testUser"),
+                new PlaylistRow(8L, "Playlist 8", 2L, "otherUser")
         );
-        expectedPlaylists.get(0).setSongs(List.of(new Song(1L, "Song 1", "Artist 1",playlists)));
-
-        when(playlistRepository.findPlaylistsWithSongs()).thenReturn(expectedPlaylists);
+        when(playlistRepository.findNonEmptyRowsAfter(any(), any())).thenReturn(rows);
+        when(playlistRepository.findSongTitlesByPlaylistIds(List.of(3L, 5L, 8L)))
+                .thenReturn(List.of(new OwnerName(3L, "Song 1"), new OwnerName(5L, "Song 2")));
 
-        List<Playlist> result = playlistService.getPlaylistsWithSongs();
+        KeysetPage<PlaylistDto> page = playlistService.getPlaylistsWithSongsPage(0, 2);
 
-        assertEquals(expectedPlaylists, result);
-        assertEquals(1, result.get(0).getSongs().size());
-        verify(playlistRepository, times(1)).findPlaylistsWithSongs();
+        assertEquals(2, page.getItems().size());
+        assertEquals(List.of("Song 1"), page.getItems().get(0).getSongTitles());
+        assertEquals(5L, page.getNextAfter());
+        verify(playlistRepository, times(1)).findSongTitlesByPlaylistIds(any());
+        verify(playlistRepository, never()).findAll();
     }
 }
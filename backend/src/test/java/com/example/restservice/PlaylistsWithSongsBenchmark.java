@@ -0,0 +1,139 @@
+package com.example.restservice;
+
+import com.example.restservice.model.KeysetPage;
+import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistDto;
+import com.example.restservice.service.PlaylistService;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old GROUP BY scan of playlist_songs plus per-entity lazy loads
+ * with the EXISTS-based keyset pages on a one-million-row join table.
+ * Opt-in: {@code mvn test -Dtest=PlaylistsWithSongsBenchmark -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PlaylistsWithSongsBenchmark {
+    private static final int PLAYLISTS = 40_000; // every other playlist is empty
+    private static final int SONGS = 10_000;
+    private static final int SONGS_PER_PLAYLIST = 50;
+    private static final int JOIN_ROWS = PLAYLISTS / 2 * SONGS_PER_PLAYLIST;
+    private static final int PAGE_SIZE = 100;
+    private static final int RUNS = 5;
+
+    private static final String LEGACY_QUERY = """
+        SELECT p.*
+        FROM playlists p
+        JOIN playlist_songs ps ON p.id = ps.playlist_id
+        GROUP BY p.id
+        HAVING COUNT(ps.song_id) > 0
+        """;
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        // Committed up front so the timed reads do not walk an open transaction's undo log
+        transactionTemplate.executeWithoutResult(status -> {
+            // Ids are the range values; nothing here draws from the sequences
+            execute("INSERT INTO users (id, username) "
+                    + "SELECT X, 'bench' || X FROM SYSTEM_RANGE(1, 1000)");
+            execute("INSERT INTO songs (id, title, artist) "
+                    + "SELECT X, 'Song ' || X, 'Artist ' || MOD(X, 100) "
+                    + "FROM SYSTEM_RANGE(1, " + SONGS + ")");
+            execute("INSERT INTO playlists (id, name, user_id) "
+                    + "SELECT X, 'Playlist ' || X, MOD(X, 1000) + 1 "
+                    + "FROM SYSTEM_RANGE(1, " + PLAYLISTS + ")");
+            // Row X goes to the (X / 50)-th odd playlist, so even playlists stay empty
+            execute("INSERT INTO playlist_songs (playlist_id, song_id, position) "
+                    + "SELECT (X / " + SONGS_PER_PLAYLIST + ") * 2 + 1, MOD(X, " + SONGS
+                    + ") + 1, (MOD(X, " + SONGS_PER_PLAYLIST + ") + 1) * 1024 "
+                    + "FROM SYSTEM_RANGE(0, " + (JOIN_ROWS - 1) + ")");
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            execute("DELETE FROM playlist_songs");
+            execute("DELETE FROM playlists");
+            execute("DELETE FROM songs");
+            execute("DELETE FROM users");
+        });
+    }
+
+    @Test
+    void compareLegacyJoinWithExistsPages() {
+        long legacy = best(this::legacyAll, JOIN_ROWS);
+        long firstPage = best(() -> countTitles(
+                playlistService.getPlaylistsWithSongsPage(0, PAGE_SIZE).getItems()),
+                PAGE_SIZE * SONGS_PER_PLAYLIST);
+        long allPages = best(this::pagedAll, JOIN_ROWS);
+
+        System.out.printf("playlist_songs rows: %d%n", JOIN_ROWS);
+        System.out.printf("legacy GROUP BY + lazy loads: %d ms%n", legacy);
+        System.out.printf("EXISTS first page (%d):     %d ms%n", PAGE_SIZE, firstPage);
+        System.out.printf("EXISTS all pages:             %d ms%n", allPages);
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long legacyAll() {
+        List<Playlist> playlists =
+                entityManager.createNativeQuery(LEGACY_QUERY, Playlist.class).getResultList();
+        return countTitles(playlists.stream().map(PlaylistDto::fromEntity).toList());
+    }
+
+    private long pagedAll() {
+        long titles = 0;
+        Long after = 0L;
+        while (after != null) {
+            KeysetPage<PlaylistDto> page =
+                    playlistService.getPlaylistsWithSongsPage(after, PAGE_SIZE);
+            titles += countTitles(page.getItems());
+            after = page.getNextAfter();
+        }
+        return titles;
+    }
+
+    private static long countTitles(List<PlaylistDto> playlists) {
+        return playlists.stream().mapToLong(playlist -> playlist.getSongTitles().size()).sum();
+    }
+
+    private long best(LongSupplier run, long expectedTitles) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            // Each run gets a fresh persistence context, like a request would
+            long[] result = transactionTemplate.execute(status -> {
+                long start = System.nanoTime();
+                long titles = run.getAsLong();
+                return new long[] {titles, System.nanoTime() - start};
+            });
+            assertEquals(expectedTitles, result[0]);
+            best = Math.min(best, result[1] / 1_000_000);
+        }
+        return best;
+    }
+}
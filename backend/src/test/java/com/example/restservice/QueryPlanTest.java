@@ -0,0 +1,143 @@
+package com.example.restservice;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the predicates of the hot catalog queries are answered from
+ * the indexes the migrations create, on a dataset large enough that a full
+ * scan would matter. The statements mirror the SQL the repositories issue.
+ * H2 backs every foreign key with an index of its own and may pick that one
+ * over ours, so plans are checked for the absence of a table scan and the
+ * migrated indexes are checked for separately; PostgreSQL has only ours.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QueryPlanTest {
+    private static final long BASE = 5_000_000;
+    private static final int SONGS = 5_000;
+    private static final int USERS = 200;
+    private static final int PLAYLISTS = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> songs = new ArrayList<>();
+        for (int i = 0; i < SONGS; i++) {
+            songs.add(new Object[] {BASE + i, "Plan song " + i, "Plan artist " + i % 250});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO songs (id, title, artist) VALUES (?, ?, ?)", songs);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[] {BASE + i, "plan-user-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username) VALUES (?, ?)", users);
+        List<Object[]> playlists = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        for (int i = 0; i < PLAYLISTS; i++) {
+            playlists.add(new Object[] {BASE + i, "Plan playlist " + i, BASE + i % USERS});
+            for (int s = 0; s < 20; s++) {
+                entries.add(new Object[] {BASE + i, BASE + (i * 37L + s * 101L) % SONGS, s + 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO playlists (id, name, user_id) VALUES (?, ?, ?)",
+                playlists);
+        jdbcTemplate.batchUpdate("INSERT INTO playlist_songs (playlist_id, song_id, position) "
+                + "VALUES (?, ?, ?)", entries);
+    }
+
+    @Test
+    void songsByArtist_ShouldUseTheArtistIndex() {
+        assertThat(plan("SELECT id, title, artist FROM songs WHERE artist = 'Plan artist 7'"))
+                .contains("IDX_SONGS_ARTIST");
+    }
+
+    @Test
+    void playlistsByUser_ShouldUseTheUserIndex() {
+        assertThat(plan("SELECT p.id, p.name, u.id, u.username FROM playlists p "
+                + "JOIN users u ON u.id = p.user_id WHERE p.user_id IN (" + BASE + ", "
+                + (BASE + 1) + ") ORDER BY p.id"))
+                .doesNotContain("tableScan");
+        assertThat(plan("DELETE FROM playlists WHERE user_id IN (" + BASE + ")"))
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void playlistNamesBySong_ShouldUseTheReverseJoinTableIndex() {
+        assertThat(plan("SELECT ps.song_id, p.name FROM playlist_songs ps "
+                + "JOIN playlists p ON p.id = ps.playlist_id "
+                + "WHERE ps.song_id IN (" + BASE + ", " + (BASE + 1) + ") ORDER BY p.id"))
+                .doesNotContain("tableScan");
+        assertThat(plan("DELETE FROM playlist_songs WHERE song_id IN (" + BASE + ")"))
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void songTitlesByPlaylist_ShouldUseTheJoinTableKey() {
+        String plan = plan("SELECT ps.playlist_id, s.title FROM playlist_songs ps "
+                + "JOIN songs s ON s.id = ps.song_id "
+                + "WHERE ps.playlist_id IN (" + BASE + ", " + (BASE + 1) + ") "
+                + "ORDER BY ps.position, s.id");
+
+        assertThat(plan).doesNotContain("tableScan");
+        assertThat(plan).containsIgnoringCase("PRIMARY_KEY");
+    }
+
+    @Test
+    void migrations_ShouldCreateThePredicateIndexes() {
+        assertThat(jdbcTemplate.queryForList("SELECT index_name FROM information_schema.indexes "
+                + "WHERE index_name LIKE 'IDX_%'", String.class))
+                .contains("IDX_SONGS_ARTIST", "IDX_PLAYLISTS_USER", "IDX_PLAYLIST_SONGS_SONG");
+    }
+
+    @Test
+    void migrations_ShouldKeyALegacyJoinTableAndKeepOneRowPerPair() {
+        DriverManagerDataSource legacy = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacyJdbc = new JdbcTemplate(legacy);
+        legacyJdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, "
+                + "username VARCHAR(255) NOT NULL UNIQUE)");
+        legacyJdbc.execute("CREATE TABLE songs (id BIGINT PRIMARY KEY, "
+                + "title VARCHAR(255) NOT NULL, artist VARCHAR(255) NOT NULL)");
+        legacyJdbc.execute("CREATE TABLE playlists (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                + "user_id BIGINT REFERENCES users (id))");
+        legacyJdbc.execute("CREATE TABLE playlist_songs (playlist_id BIGINT NOT NULL, "
+                + "song_id BIGINT NOT NULL)");
+        legacyJdbc.execute("INSERT INTO songs VALUES (1, 'A', 'X'), (2, 'B', 'X'), (3, 'C', 'Y')");
+        legacyJdbc.execute("INSERT INTO playlists VALUES (10, 'Mix', NULL)");
+        legacyJdbc.execute("INSERT INTO playlist_songs VALUES (10, 3), (10, 1), (10, 3), (10, 2)");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(legacy)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+        flyway.migrate();
+
+        assertThat(legacyJdbc.queryForList("SELECT song_id FROM playlist_songs "
+                + "WHERE playlist_id = 10 ORDER BY position", Long.class))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(legacyJdbc.queryForList("SELECT position FROM playlist_songs "
+                + "ORDER BY position", Long.class))
+                .containsExactly(1024L, 2048L, 3072L);
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("3");
+        legacyJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.restservice;
+
+import com.example.restservice.aspect.MethodTiming;
+import com.example.restservice.aspect.MethodTimings;
+import com.example.restservice.repository.PlaylistRepository;
+import com.example.restservice.repository.SongRepository;
+import com.example.restservice.repository.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RepositoryTimingTest {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlaylistRepository playlistRepository;
+
+    @Autowired
+    private MethodTimings methodTimings;
+
+    @Test
+    void inheritedRepositoryMethods_ShouldBeTimedPerRepository() {
+        songRepository.findAll();
+        userRepository.findAll();
+        playlistRepository.findById(-1L);
+        songRepository.findExistingIds(List.of(-1L));
+
+        List<String> repositoryTimers = methodTimings.timings().stream()
+                .filter(timing -> timing.getLayer().equals("repository"))
+                .map(MethodTiming::getMethod)
+                .toList();
+
+        assertThat(repositoryTimers).contains("SongRepository.findAll()",
+                "UserRepository.findAll()", "PlaylistRepository.findById(Object)",
+                "SongRepository.findExistingIds(Collection)");
+        assertThat(repositoryTimers).noneMatch(name -> name.startsWith("ListCrudRepository.")
+                || name.startsWith("CrudRepository."));
+        assertThat(methodTimings.prometheus()).contains(
+                "app_method_duration_seconds_count{layer=\"repository\","
+                        + "method=\"SongRepository.findAll()\"}");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.restservice;
+
+import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.service.CachedJson;
+import com.example.restservice.service.ResponseCacheService;
+import com.example.restservice.service.SegmentedLruCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResponseCacheServiceTest {
+
+    private ResponseCacheService responseCacheService;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        SegmentedLruCache<String, CachedJson> cache = new SegmentedLruCache<>(
+                4, 1024 * 1024, Duration.ZERO, json -> json.getBody().length);
+        responseCacheService = new ResponseCacheService(cache, new ObjectMapper());
+    }
+
+    private CachedJson load(List<String> value) {
+        return responseCacheService.get(ResponseCacheService.SONGS, () -> {
+            loads.incrementAndGet();
+            return value;
+        });
+    }
+
+    @Test
+    void get_ShouldSerializeOnceAndServeBytesFromCache() {
+        CachedJson first = load(List.of("a", "b"));
+        CachedJson second = load(List.of("ignored"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertArrayEquals("[\"a\",\"b\"]".getBytes(StandardCharsets.UTF_8), first.getBody());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        CachedJson first = load(List.of("a"));
+        responseCacheService.invalidate();
+        CachedJson second = load(List.of("b"));
+
+        assertEquals(2, loads.get());
+        assertNotEquals(first.getEtag(), second.getEtag());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLoads() {
+        assertThrows(NotFoundException.class, () ->
+                responseCacheService.get(ResponseCacheService.USERS, () -> {
+                    throw new NotFoundException("The user list is empty");
+                }));
+
+        CachedJson json = responseCacheService.get(ResponseCacheService.USERS, List::of);
+        assertArrayEquals("[]".getBytes(StandardCharsets.UTF_8), json.getBody());
+    }
+
+    @Test
+    void toResponse_ShouldReturnNotModified_WhenEtagMatches() {
+        CachedJson json = load(List.of("a"));
+
+        ResponseEntity<byte[]> response = json.toResponse("W/\"other\", " + json.getEtag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(json.getEtag(), response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void toResponse_ShouldReturnBody_WhenEtagDiffers() {
+        CachedJson json = load(List.of("a"));
+
+        ResponseEntity<byte[]> response = json.toResponse("\"stale\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json.getBody(), response.getBody());
+    }
+}
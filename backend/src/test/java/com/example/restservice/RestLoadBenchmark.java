@@ -0,0 +1,313 @@
+package com.example.restservice;
+
+import com.example.restservice.service.IdSequences;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application on H2 in PostgreSQL mode, seeds the catalog and
+ * drives a weighted mix of reads and writes from concurrent clients. Prints
+ * p50/p99/p999 latency and throughput per endpoint and writes the same table
+ * to target/load-report.json.
+ *
+ * <p>Opt-in: {@code mvn test -Dtest=RestLoadBenchmark -Dbenchmark=true}, with
+ * optional {@code -Dload.users=, load.playlists=, load.songs=,
+ * load.songs-per-playlist=, load.threads=, load.warmup=, load.duration=}
+ * (durations in seconds).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RestLoadBenchmark {
+    private static final int USERS = Integer.getInteger("load.users", 1_000);
+    private static final int PLAYLISTS = Integer.getInteger("load.playlists", 5_000);
+    private static final int SONGS = Integer.getInteger("load.songs", 20_000);
+    private static final int SONGS_PER_PLAYLIST = Integer.getInteger("load.songs-per-playlist", 20);
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final Path REPORT = Path.of("target", "load-report.json");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdSequences idSequences;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM songs", Long.class) > 0) {
+            return;
+        }
+        // Ids are the range values, so random(n) always names a seeded row; the sequences
+        // are moved past them afterwards for the writes in the mix.
+        // DATABASE_TO_LOWER folds unquoted names, so SYSTEM_RANGE's X has to be quoted
+        jdbcTemplate.update("INSERT INTO users (id, username) "
+                + "SELECT \"X\", 'user' || \"X\" FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO songs (id, title, artist) "
+                + "SELECT \"X\", 'Song ' || \"X\", 'Artist ' || MOD(\"X\", 500) "
+                + "FROM SYSTEM_RANGE(1, ?)", SONGS);
+        jdbcTemplate.update("INSERT INTO playlists (id, name, user_id) "
+                + "SELECT \"X\", 'Playlist ' || \"X\", MOD(\"X\", ?) + 1 "
+                + "FROM SYSTEM_RANGE(1, ?)", USERS, PLAYLISTS);
+        // Row X goes to playlist X / n + 1; its songs are distinct while n <= SONGS
+        jdbcTemplate.update("INSERT INTO playlist_songs (playlist_id, song_id, position) "
+                + "SELECT \"X\" / ? + 1, MOD(\"X\" * 7919, ?) + 1, (MOD(\"X\", ?) + 1) * 1024 "
+                + "FROM SYSTEM_RANGE(0, ?)",
+                SONGS_PER_PLAYLIST, SONGS, SONGS_PER_PLAYLIST,
+                PLAYLISTS * SONGS_PER_PLAYLIST - 1);
+        idSequences.alignWithExistingIds();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        List<Operation> operations = operations();
+
+        run(operations, WARMUP_SECONDS, null);
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        long elapsedNanos = run(operations, DURATION_SECONDS, recorders);
+
+        List<Map<String, Object>> report = report(operations, recorders, elapsedNanos);
+        print(report);
+        Files.createDirectories(REPORT.getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(REPORT.toFile(), report);
+
+        assertTrue(recorders.values().stream().mapToLong(Recorder::count).sum() > 0);
+    }
+
+    private List<Operation> operations() {
+        String today = LocalDate.now().toString();
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("GET /songs", 8, () -> get("/songs")));
+        operations.add(new Operation("GET /songs?limit", 10,
+                () -> get("/songs?limit=100&after=" + random(SONGS))));
+        operations.add(new Operation("GET /songs/{id}", 10, () -> get("/songs/" + random(SONGS))));
+        operations.add(new Operation("GET /songs/by-artist", 10,
+                () -> get("/songs/by-artist?artist=Artist%20" + random(500))));
+        operations.add(new Operation("GET /playlists", 4, () -> get("/playlists")));
+        operations.add(new Operation("GET /playlists?limit", 8,
+                () -> get("/playlists?limit=100&after=" + random(PLAYLISTS))));
+        operations.add(new Operation("GET /playlists/with-songs", 5,
+                () -> get("/playlists/with-songs?limit=100&after=" + random(PLAYLISTS))));
+        operations.add(new Operation("GET /playlists/{id}", 8,
+                () -> get("/playlists/" + random(PLAYLISTS))));
+        operations.add(new Operation("GET /users", 4, () -> get("/users")));
+        operations.add(new Operation("GET /users?limit", 8,
+                () -> get("/users?limit=100&after=" + random(USERS))));
+        operations.add(new Operation("GET /users/{id}", 8, () -> get("/users/" + random(USERS))));
+        operations.add(new Operation("GET /logs/{date}", 2, () -> get("/logs/" + today)));
+        operations.add(new Operation("POST /songs", 3, () -> send("POST", "/songs",
+                "[{\"title\":\"Load " + writeSequence.incrementAndGet()
+                        + "\",\"artist\":\"Artist " + random(500) + "\"}]")));
+        operations.add(new Operation("PUT /songs/{id}", 3, () -> send("PUT",
+                "/songs/" + random(SONGS),
+                "{\"title\":\"Updated " + writeSequence.incrementAndGet()
+                        + "\",\"artist\":\"Artist " + random(500) + "\"}")));
+        operations.add(new Operation("POST /users", 2, () -> send("POST", "/users",
+                "[{\"username\":\"load-" + UUID.randomUUID() + "\"}]")));
+        operations.add(new Operation("PUT /playlists/u/{id}", 2, () -> send("PUT",
+                "/playlists/u/" + random(PLAYLISTS),
+                "{\"name\":\"Renamed " + writeSequence.incrementAndGet() + "\",\"songIds\":["
+                        + random(SONGS) + "," + random(SONGS) + "," + random(SONGS) + "]}")));
+        return operations;
+    }
+
+    private long run(List<Operation> operations, int seconds, Map<String, Recorder> recorders)
+            throws Exception {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = pick(operations, totalWeight);
+                        long began = System.nanoTime();
+                        int status = operation.request().get();
+                        long latency = System.nanoTime() - began;
+                        if (recorders != null) {
+                            recorders.computeIfAbsent(operation.name(), name -> new Recorder())
+                                    .record(latency, status);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            roll -= operation.weight();
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private int get(String path) {
+        return execute(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private int send(String method, String path, String json) {
+        return execute(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private int execute(HttpRequest.Builder request) {
+        try {
+            return client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound) + 1;
+    }
+
+    private static List<Map<String, Object>> report(List<Operation> operations,
+                                                    Map<String, Recorder> recorders,
+                                                    long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Operation operation : operations) {
+            Recorder recorder = recorders.get(operation.name());
+            if (recorder == null) {
+                continue;
+            }
+            long[] latencies = recorder.sorted();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", operation.name());
+            row.put("requests", latencies.length);
+            row.put("errors", recorder.errors());
+            row.put("throughputPerSec", Math.round(latencies.length / seconds * 10) / 10.0);
+            row.put("p50Ms", percentileMillis(latencies, 0.50));
+            row.put("p99Ms", percentileMillis(latencies, 0.99));
+            row.put("p999Ms", percentileMillis(latencies, 0.999));
+            row.put("maxMs", percentileMillis(latencies, 1.0));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        long nanos = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
+    private static void print(List<Map<String, Object>> report) {
+        System.out.printf("%n%-28s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests",
+                "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map<String, Object> row : report) {
+            System.out.printf("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("endpoint"), row.get("requests"), row.get("errors"),
+                    row.get("throughputPerSec"), row.get("p50Ms"), row.get("p99Ms"),
+                    row.get("p999Ms"), row.get("maxMs"));
+        }
+    }
+
+    private record Operation(String name, int weight, Supplier<Integer> request) {
+    }
+
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void record(long latencyNanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            // 404s are expected for deleted or unseeded ids; anything else counts
+            if (status < 0 || status >= 500 || (status >= 400 && status != 404)) {
+                errors++;
+            }
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.restservice;
+
+import com.example.restservice.service.CacheStats;
+import com.example.restservice.service.SegmentedLruCache;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentedLruCacheTest {
+
+    private SegmentedLruCache<Integer, String> cache(int maxEntries) {
+        return new SegmentedLruCache<>(maxEntries, Long.MAX_VALUE, Duration.ZERO, v -> 1);
+    }
+
+    @Test
+    void testCacheEviction() {
+        SegmentedLruCache<Integer, String> cache = cache(3);
+
+        cache.put(1, "One");
+        cache.put(2, "Two");
+        cache.put(3, "Three");
+        cache.put(4, "Four");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get(1));
+        assertEquals("Two", cache.get(2));
+        assertEquals("Three", cache.get(3));
+        assertEquals("Four", cache.get(4));
+    }
+
+    @Test
+    void testPromotedEntriesSurviveScan() {
+        SegmentedLruCache<Integer, String> cache = cache(5);
+
+        cache.put(1, "One");
+        cache.get(1);
+
+        for (int i = 100; i < 110; i++) {
+            cache.put(i, "scan");
+        }
+
+        assertEquals("One", cache.get(1));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    void testWeightBound() {
+        SegmentedLruCache<String, List<Integer>> cache =
+                new SegmentedLruCache<>(100, 10, Duration.ZERO, List::size);
+
+        cache.put("a", listOf(6));
+        cache.put("b", listOf(6));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertEquals(6, cache.stats().getWeight());
+    }
+
+    @Test
+    void testOversizedValueIsNotCached() {
+        SegmentedLruCache<String, List<Integer>> cache =
+                new SegmentedLruCache<>(100, 10, Duration.ZERO, List::size);
+
+        cache.put("small", listOf(2));
+        cache.put("huge", listOf(11));
+
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("small"));
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(
+                10, 10, Duration.ofSeconds(5), v -> 1, now::get);
+
+        cache.put(1, "One");
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals("One", cache.get(1));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testStats() {
+        SegmentedLruCache<Integer, String> cache = cache(1);
+
+        cache.put(1, "One");
+        cache.get(1);
+        cache.get(2);
+        cache.put(2, "Two");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        SegmentedLruCache<Integer, String> cache = cache(3);
+
+        cache.put(1, "One");
+        cache.put(2, "Two");
+        cache.remove(1);
+        assertNull(cache.get(1));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().getWeight());
+    }
+
+    @Test
+    void testConcurrentAccessKeepsBounds() throws InterruptedException {
+        SegmentedLruCache<Integer, String> cache = cache(50);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t * 1000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    cache.put(offset + i % 100, "v");
+                    cache.get(offset + (i * 7) % 100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(50, cache.size());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        SegmentedLruCache<Integer, String> cache = cache(10);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get(1, key -> {
+                    loaderCalls.incrementAndGet();
+                    awaitQuietly(release);
+                    return "One";
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.stats().getCoalescedLoads() < callers - 1
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("One", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cache.stats().getLoads());
+        assertEquals(callers - 1, cache.stats().getCoalescedLoads());
+        assertEquals("One", cache.get(1));
+    }
+
+    @Test
+    void testLoaderFailureIsNotCached() {
+        SegmentedLruCache<Integer, String> cache = cache(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1, key -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals("One", cache.get(1, key -> "One"));
+        assertEquals(2, cache.stats().getLoads());
+    }
+
+    @Test
+    void testRefreshAfterWriteReloadsStaleEntry() {
+        AtomicLong now = new AtomicLong();
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(
+                10, 10, Duration.ofMinutes(10), Duration.ofMinutes(1), v -> 1, now::get);
+
+        assertEquals("v1", cache.get(1, key -> "v1"));
+        assertEquals("v1", cache.get(1, key -> "unused"));
+
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals("v2", cache.get(1, key -> "v2"));
+        assertEquals("v2", cache.get(1));
+    }
+
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> cache(0));
+    }
+
+    private static List<Integer> listOf(int size) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,28 +1,37 @@
 package com.example.restservice;
 
 import com.example.restservice.exception.BadRequestException;
+import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.KeysetPage;
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Playlist;
 import com.example.restservice.model.Song;
 import com.example.restservice.model.SongDto;
-import com.example.restservice.model.User;
-import com.example.restservice.repository.PlaylistRepository;
+import com.example.restservice.model.SongSummary;
 import com.example.restservice.repository.SongRepository;
+import com.example.restservice.service.CacheStore;
+import com.example.restservice.service.ResponseCacheService;
 import com.example.restservice.service.SongService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -36,10 +45,10 @@ class SongServiceTest {
     private SongRepository songRepository;
 
     @Mock
-    private PlaylistRepository playlistRepository;
+    private CacheStore<String, List<SongSummary>> songsCache;
 
     @Mock
-    private LinkedHashMap<String, List<Song>> songsCache;
+    private ResponseCacheService responseCacheService;
 
 
     @InjectMocks
@@ -47,17 +56,64 @@ class SongServiceTest {
 
     @Test
     void getAllSongs_ShouldReturnAllSongs() {
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> expectedSongs = Arrays.asList(
-                new Song(1L, "Song 1", "Artist 1",playlists),
-                new Song(2L, "Song 2", "Artist 2",playlists)
+        List<SongSummary> expectedSongs = Arrays.asList(
+                new SongSummary(1L, "Song 1", "Artist 1"),
+                new SongSummary(2L, "Song 2", "Artist 2")
         );
-        when(songRepository.findAll()).thenReturn(expectedSongs);
+        when(songRepository.findAllSummaries()).thenReturn(expectedSongs);
+        when(songRepository.findAllPlaylistNames()).thenReturn(List.of(
+                new OwnerName(1L, "Playlist 1"),
+                new OwnerName(1L, "Playlist 2")));
 
         List<SongDto> result = songService.getAllSongs();
 
-        //assertEquals(expectedSongs, result);
-        verify(songRepository, times(1)).findAll();
+        assertEquals(2, result.size());
+        assertEquals(List.of("Playlist 1", "Playlist 2"), result.get(0).getPlaylistNames());
+        assertEquals(List.of(), result.get(1).getPlaylistNames());
+        verify(songRepository, times(1)).findAllSummaries();
+        verify(songRepository, never()).findAll();
+    }
+
+    @Test
+    void getSongsPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        List<SongSummary> rows = Arrays.asList(
+                new SongSummary(11L, "Song 1", "Artist"),
+                new SongSummary(12L, "Song 2", "Artist"),
+                new SongSummary(13L, "Song 3", "Artist")
+        );
+        when(songRepository.findSummariesAfter(10L, Limit.of(3))).thenReturn(rows);
+        when(songRepository.findPlaylistNamesBySongIds(List.of(11L, 12L, 13L)))
+                .thenReturn(List.of(new OwnerName(12L, "Playlist")));
+
+        KeysetPage<SongDto> page = songService.getSongsPage(10L, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(List.of("Playlist"), page.getItems().get(1).getPlaylistNames());
+        assertEquals(12L, page.getNextAfter());
+    }
+
+    @Test
+    void getSongsPage_ShouldReturnNoCursor_OnLastPage() {
+        List<SongSummary> rows = List.of(new SongSummary(11L, "Song 1", "Artist"));
+        when(songRepository.findSummariesAfter(10L, Limit.of(3))).thenReturn(rows);
+
+        KeysetPage<SongDto> page = songService.getSongsPage(10L, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextAfter());
+    }
+
+    @Test
+    void streamAllSongs_ShouldEmitEveryRowInOrder() {
+        when(songRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new SongSummary(1L, "Song 1", "Artist"),
+                new SongSummary(2L, "Song 2", "Artist")));
+        List<Long> emitted = new ArrayList<>();
+
+        songService.streamAllSongs(dto -> emitted.add(dto.getId()));
+
+        assertEquals(List.of(1L, 2L), emitted);
+        verify(songRepository, times(1)).findPlaylistNamesBySongIds(List.of(1L, 2L));
     }
 
     @Test
@@ -99,6 +155,7 @@ class SongServiceTest {
 
         assertEquals(savedSongs, result);
         verify(songRepository, times(1)).saveAll(songsToSave);
+        verify(responseCacheService, times(1)).invalidate();
     }
 
     @Test
@@ -110,6 +167,7 @@ class SongServiceTest {
         });
 
         verify(songRepository, never()).saveAll(anyList());
+        verifyNoInteractions(responseCacheService);
     }
 
     @Test
@@ -174,64 +232,64 @@ class SongServiceTest {
     }
 
     @Test
-    void deleteSong_ShouldRemoveFromPlaylistsAndClearCache() {
-        Long songId = 1L;
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> songsToDelete = Collections.emptyList();
-        User user = new User(1L,"test user",playlists);
-        Song song = new Song(songId, "Test Song", "Test Artist",playlists);
-        Playlist playlist1 = new Playlist(1L, "Playlist 1",user,songsToDelete);
-        Playlist playlist2 = new Playlist(2L, "Playlist 2",user,songsToDelete);
-        song.setPlaylists(Arrays.asList(playlist1, playlist2));
+    void deleteSongs_ShouldDeleteSetBasedAndClearCache() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(songRepository.findSummariesByIds(ids)).thenReturn(List.of(
+                new SongSummary(1L, "Song 1", "Test Artist"),
+                new SongSummary(3L, "Song 3", "Test Artist")));
+        when(songRepository.deleteByIds(List.of(1L, 3L))).thenReturn(2);
+
+        BatchDeleteResult result = songService.deleteSongs(ids);
+
+        assertEquals(2, result.getDeleted());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(songRepository, never()).findById(any());
+        verify(songsCache, times(1)).remove("Test Artist");
+        verify(responseCacheService, times(1)).invalidate();
+    }
 
-        when(songRepository.findById(songId)).thenReturn(Optional.of(song));
-        doNothing().when(songRepository).delete(song);
+    @Test
+    void deleteSong_ShouldThrowNotFound_WhenSongDoesNotExist() {
+        when(songRepository.findSummariesByIds(List.of(9L))).thenReturn(List.of());
 
-        songService.deleteSong(songId);
+        assertThrows(NotFoundException.class, () -> songService.deleteSong(9L));
 
-        verify(songRepository, times(1)).findById(songId);
-        verify(playlistRepository, times(1)).save(playlist1);
-        verify(playlistRepository, times(1)).save(playlist2);
-        verify(songRepository, times(1)).delete(song);
-        verify(songsCache, times(1)).remove("Test Artist");
+        verify(songRepository, never()).deleteByIds(any());
+        verifyNoInteractions(responseCacheService);
     }
 
     @Test
     void getSongsByArtist_ShouldReturnFromCache_WhenAvailable() {
         String artist = "Cached Artist";
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> cachedSongs = Arrays.asList(
-                new Song(1L, "Song 1", artist, playlists),
-                new Song(2L, "Song 2", artist,playlists)
+        List<SongSummary> cachedSongs = Arrays.asList(
+                new SongSummary(1L, "Song 1", artist),
+                new SongSummary(2L, "Song 2", artist)
         );
-        when(songsCache.containsKey(artist)).thenReturn(true);
-        when(songsCache.get(artist)).thenReturn(cachedSongs);
+        when(songsCache.get(eq(artist), any())).thenReturn(cachedSongs);
 
-        List<Song> result = songService.getSongsByArtist(artist);
+        List<SongSummary> result = songService.getSongsByArtist(artist);
 
         assertEquals(cachedSongs, result);
-        verify(songsCache, times(1)).containsKey(artist);
-        verify(songsCache, times(1)).get(artist);
-        verify(songRepository, never()).findByArtist(any());
+        verify(songsCache, times(1)).get(eq(artist), any());
+        verify(songRepository, never()).findSummariesByArtist(any());
     }
 
     @Test
     void getSongsByArtist_ShouldQueryDBAndUpdateCache_WhenNotInCache() {
         String artist = "New Artist";
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> dbSongs = Arrays.asList(
-                new Song(1L, "Song 1", artist,playlists),
-                new Song(2L, "Song 2", artist,playlists)
+        List<SongSummary> dbSongs = Arrays.asList(
+                new SongSummary(1L, "Song 1", artist),
+                new SongSummary(2L, "Song 2", artist)
         );
-        when(songsCache.containsKey(artist)).thenReturn(false);
-        when(songRepository.findByArtist(artist)).thenReturn(dbSongs);
+        stubCacheMiss();
+        when(songRepository.findSummariesByArtist(artist)).thenReturn(dbSongs);
 
-        List<Song> result = songService.getSongsByArtist(artist);
+        List<SongSummary> result = songService.getSongsByArtist(artist);
 
         assertEquals(dbSongs, result);
-        verify(songsCache, times(1)).containsKey(artist);
-        verify(songRepository, times(1)).findByArtist(artist);
-        verify(songsCache, times(1)).put(artist, dbSongs);
+        assertThrows(UnsupportedOperationException.class, () -> result.add(dbSongs.get(0)));
+        verify(songsCache, times(1)).get(eq(artist), any());
+        verify(songRepository, times(1)).findSummariesByArtist(artist);
     }
 
     @Test
@@ -258,15 +316,22 @@ class SongServiceTest {
     void getSongsByArtist_ShouldSanitizeInput() {
         String artist = "Artist\nWith\rNewlines";
         String sanitizedArtist = "Artist_With_Newlines";
-        List<Playlist> playlists = Collections.emptyList();
-        List<Song> dbSongs = Collections.singletonList(new Song(1L, "Song", sanitizedArtist,playlists));
+        List<SongSummary> dbSongs =
+                Collections.singletonList(new SongSummary(1L, "Song", sanitizedArtist));
 
-        when(songsCache.containsKey(sanitizedArtist)).thenReturn(false);
-        when(songRepository.findByArtist(sanitizedArtist)).thenReturn(dbSongs);
+        stubCacheMiss();
+        when(songRepository.findSummariesByArtist(sanitizedArtist)).thenReturn(dbSongs);
 
-        List<Song> result = songService.getSongsByArtist(artist);
+        List<SongSummary> result = songService.getSongsByArtist(artist);
 
         assertEquals(dbSongs, result);
-        verify(songRepository, times(1)).findByArtist(sanitizedArtist);
+        verify(songRepository, times(1)).findSummariesByArtist(sanitizedArtist);
+    }
+
+    private void stubCacheMiss() {
+        when(songsCache.get(any(), any())).thenAnswer(invocation -> {
+            Function<String, List<SongSummary>> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        });
     }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.example.restservice;
 
 import com.example.restservice.exception.NotFoundException;
+import com.example.restservice.model.BatchDeleteResult;
+import com.example.restservice.model.OwnerName;
 import com.example.restservice.model.Playlist;
+import com.example.restservice.model.PlaylistRow;
 import com.example.restservice.model.User;
 import com.example.restservice.model.UserDto;
 import com.example.restservice.repository.PlaylistRepository;
 import com.example.restservice.repository.UserRepository;
+import com.example.restservice.service.ResponseCacheService;
 import com.example.restservice.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,13 +21,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,6 +40,9 @@ class UserServiceTest {
     @Mock
     private PlaylistRepository playlistRepository;
 
+    @Mock
+    private ResponseCacheService responseCacheService;
+
     @InjectMocks
     private UserService userService;
 
@@ -70,17 +75,18 @@ class UserServiceTest {
 
     @Test
     void testGetAllUsers() {
-        List<Playlist> playlists = Collections.emptyList();
-        User user = new User(1L, "user1",playlists);
-        List<User> expectedUsers = Collections.singletonList(user);
-
-        when(userRepository.findAll()).thenReturn(expectedUsers);
+        when(userRepository.findAllRows()).thenReturn(List.of(new UserDto(1L, "user1")));
+        when(playlistRepository.findAllRows()).thenReturn(List.of(
+                new PlaylistRow(10L, "Playlist", 1L, "user1")));
+        when(playlistRepository.findAllSongTitles()).thenReturn(List.of(
+                new OwnerName(10L, "Song")));
 
         List<UserDto> result = userService.getAllUsers();
 
         assertEquals(1, result.size());
-        //assertEquals(expectedUsers, result);
-        verify(userRepository, times(1)).findAll();
+        assertEquals(1, result.get(0).getPlaylists().size());
+        assertEquals(List.of("Song"), result.get(0).getPlaylists().get(0).getSongTitles());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -117,36 +123,33 @@ class UserServiceTest {
         assertEquals(2, result.size());
         assertEquals(savedUsers, result);
         verify(userRepository, times(1)).saveAll(newUsers);
+        verify(responseCacheService, times(1)).invalidate();
     }
 
     @Test
-    void testDeleteUser_Success_WithEmptyPlaylists() {
-        Long userId = 1L;
-        List<Playlist> playlists = Collections.emptyList();
-        User user = new User(userId, "testUser",playlists);
-
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        doNothing().when(playlistRepository).deleteAll(user.getPlaylists());
-        doNothing().when(userRepository).delete(user);
-
-        assertDoesNotThrow(() -> userService.deleteUser(userId));
-
-        verify(userRepository, times(1)).findById(userId);
-        verify(playlistRepository, times(1)).deleteAll(user.getPlaylists());
-        verify(userRepository, times(1)).delete(user);
+    void testDeleteUsers_DeletesPlaylistsAndUsersWithoutLoadingThem() {
+        List<Long> ids = List.of(1L, 2L);
+        when(userRepository.findExistingIds(ids)).thenReturn(List.of(1L));
+        when(userRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
+        BatchDeleteResult result = userService.deleteUsers(ids);
+
+        assertEquals(1, result.getDeleted());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(playlistRepository, times(1)).deleteByUserIds(List.of(1L));
+        verify(userRepository, never()).findById(any());
+        verify(responseCacheService, times(1)).invalidate();
     }
 
     @Test
     void testDeleteUser_NotFound() {
         Long userId = 999L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findExistingIds(List.of(userId))).thenReturn(List.of());
 
         assertThrows(NotFoundException.class, () -> userService.deleteUser(userId));
 
-        verify(userRepository, times(1)).findById(userId);
-        verify(playlistRepository, never()).deleteAll(any());
-        verify(userRepository, never()).delete(any());
+        verify(playlistRepository, never()).deleteByUserIds(any());
+        verify(userRepository, never()).deleteByIds(any());
     }
-}
\ No newline at end of file
+}
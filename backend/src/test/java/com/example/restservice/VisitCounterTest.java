@@ -1,5 +1,6 @@
 package com.example.restservice;
 
+import com.example.restservice.aspect.RequestCountingAspect;
 import com.example.restservice.service.VisitCounterService;
 
 
@@ -7,6 +8,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,7 +22,7 @@ class VisitCounterServiceTest {
 
     @BeforeEach
     void setUp() {
-        visitCounterService = new VisitCounterService();
+        visitCounterService = new VisitCounterService(1000);
     }
 
     @Test
@@ -115,4 +120,56 @@ class VisitCounterServiceTest {
         assertThat(visitCounterService.getAllCounts().get(testUrl))
                 .isEqualTo(threads * incrementsPerThread);
     }
-}
\ No newline at end of file
+
+    @Test
+    void incrementCounter_shouldCountNewKeysAsOtherOnceCapIsReached() {
+        // Arrange
+        visitCounterService = new VisitCounterService(2);
+        visitCounterService.incrementCounter("/api/songs");
+        visitCounterService.incrementCounter("/api/users");
+
+        // Act
+        visitCounterService.incrementCounter("/api/playlists");
+        visitCounterService.incrementCounter("/api/logs/search");
+        visitCounterService.incrementCounter("/api/songs");
+
+        // Assert
+        assertThat(visitCounterService.getAllCounts())
+                .containsEntry("/api/songs", 2L)
+                .containsEntry("/api/users", 1L)
+                .containsEntry(VisitCounterService.OTHER, 2L)
+                .hasSize(3);
+    }
+
+    @Test
+    void getAllCounts_shouldReturnSnapshot() {
+        // Arrange
+        visitCounterService.incrementCounter("/api/test");
+        Map<String, Long> counts = visitCounterService.getAllCounts();
+
+        // Act
+        visitCounterService.incrementCounter("/api/test");
+
+        // Assert
+        assertThat(counts.get("/api/test")).isEqualTo(1L);
+    }
+
+    @Test
+    void countRequest_shouldCountRouteTemplateInsteadOfPath() {
+        // Arrange
+        RequestCountingAspect aspect = new RequestCountingAspect(visitCounterService);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/songs/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/songs/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        try {
+            aspect.countRequest();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // Assert
+        assertThat(visitCounterService.getAllCounts()).containsOnlyKeys("/api/songs/{id}");
+    }
+}